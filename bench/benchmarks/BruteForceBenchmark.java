@@ -0,0 +1,44 @@
+package benchmarks;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Solving the reduction of a random Hamiltonian path problem by trying
+ * every assignment.  There are N^2 variables, so only very small
+ * problems are feasible
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BruteForceBenchmark {
+    @Param({"3", "4", "5"})
+    int n; // Number of vertices
+
+    Object cnf; // CNF
+
+    @Setup
+    public void setup() throws Throwable {
+        Object problem = (Object)Handles.NEW_HAMILTONIAN_PATH.invokeExact();
+        Handles.MAKE_RANDOM_PROBLEM.invokeExact(problem, n, 0L);
+        cnf = (Object)Handles.REDUCE_TO_SAT.invokeExact(problem);
+    }
+
+    @Benchmark
+    public Object solveBrute() throws Throwable {
+        return (Object)Handles.SOLVE_BRUTE.invokeExact(cnf);
+    }
+}
@@ -0,0 +1,59 @@
+package benchmarks;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Building a CNF one clause at a time, and checking an assignment against
+ * it, for the clauses of a random Hamiltonian path problem.  addClauses
+ * adds every clause of the reduction, so divide by the number of clauses
+ * for the cost of one addClause
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CNFBenchmark {
+    @Param({"10", "20", "40"})
+    int n; // Number of vertices
+
+    Object cnf; // CNF
+    int[][] clauses; // Clauses of the CNF, in signed 1-indexed format
+    boolean[] model; // An assignment that satisfies the CNF
+
+    @Setup
+    public void setup() throws Throwable {
+        Object problem = (Object)Handles.NEW_HAMILTONIAN_PATH.invokeExact();
+        Handles.MAKE_RANDOM_PROBLEM.invokeExact(problem, n, 0L);
+        cnf = (Object)Handles.REDUCE_TO_SAT.invokeExact(problem);
+        clauses = ((List<?>)(Object)Handles.GET_CLAUSES.invokeExact(cnf)).toArray(new int[0][]);
+        model = (boolean[])(Object)Handles.SOLVE_DPLL.invokeExact(cnf);
+    }
+
+    @Benchmark
+    public Object addClauses() throws Throwable {
+        Object c = (Object)Handles.NEW_CNF.invokeExact();
+        for (int[] clause: clauses) {
+            Handles.ADD_CLAUSE.invokeExact(c, (Object)clause);
+        }
+        return c;
+    }
+
+    @Benchmark
+    public boolean isSatisfied() throws Throwable {
+        return (boolean)Handles.IS_SATISFIED.invokeExact(cnf, (Object)model);
+    }
+}
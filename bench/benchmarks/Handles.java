@@ -0,0 +1,81 @@
+package benchmarks;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Method;
+
+/**
+ * JMH won't generate benchmarks for classes in the default package, and
+ * code in a named package can't refer to classes in the default package,
+ * so the benchmarks call into the project through method handles.  The
+ * handles are static finals, which the JIT treats as constants, so the
+ * calls are inlined just like ordinary ones.
+ *
+ * Every reference type in the handles is erased to Object, so they can
+ * be called with invokeExact without naming the project's classes
+ */
+final class Handles {
+    static final MethodHandle NEW_HAMILTONIAN_PATH = constructor("HamiltonianPath");
+    static final MethodHandle MAKE_RANDOM_PROBLEM = method("HamiltonianPath", "makeRandomProblem", int.class, long.class);
+    static final MethodHandle REDUCE_TO_SAT = method("HamiltonianPath", "reduceToSAT");
+    static final MethodHandle NEW_CNF = constructor("CNF");
+    static final MethodHandle ADD_CLAUSE = method("CNF", "addClause", int[].class);
+    static final MethodHandle GET_CLAUSES = method("CNF", "getClauses");
+    static final MethodHandle IS_SATISFIED = method("CNF", "isSatisfied", boolean[].class);
+    static final MethodHandle SOLVE_DPLL = method("CNF", "solveDPLL");
+    static final MethodHandle SOLVE_BRUTE = method("CNF", "solveBrute");
+    static final MethodHandle NEW_HAMILTONIAN_PATH_CERT = constructor("HamiltonianPathCert", boolean[].class, int.class);
+    static final MethodHandle VERIFY = method("HamiltonianPathCert", "verify", type("NPCompleteProblem"));
+
+    private Handles() {
+    }
+
+    private static Class<?> type(String name) {
+        try {
+            return Class.forName(name);
+        }
+        catch (ClassNotFoundException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    /**
+     * Make a handle for a public method, which may be in a class that
+     * isn't public
+     * @param className Class the method belongs to
+     * @param name Name of the method
+     * @param params Types of its parameters
+     * @return A handle that takes the object and then the parameters
+     */
+    private static MethodHandle method(String className, String name, Class<?>... params) {
+        try {
+            Method m = type(className).getMethod(name, params);
+            m.setAccessible(true);
+            MethodHandle h = MethodHandles.lookup().unreflect(m);
+            return h.asType(h.type().erase());
+        }
+        catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    /**
+     * Make a handle for a constructor, which may be in a class that
+     * isn't public
+     * @param className Class to construct
+     * @param params Types of the constructor's parameters
+     * @return A handle that takes the parameters and returns the new object
+     */
+    private static MethodHandle constructor(String className, Class<?>... params) {
+        try {
+            Constructor<?> c = type(className).getDeclaredConstructor(params);
+            c.setAccessible(true);
+            MethodHandle h = MethodHandles.lookup().unreflectConstructor(c);
+            return h.asType(h.type().erase());
+        }
+        catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package benchmarks;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Making a random Hamiltonian path problem, and reducing it to SAT
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ReductionBenchmark {
+    @Param({"10", "20", "40", "80"})
+    int n; // Number of vertices
+
+    Object problem; // HamiltonianPath
+
+    @Setup
+    public void setup() throws Throwable {
+        problem = (Object)Handles.NEW_HAMILTONIAN_PATH.invokeExact();
+        Handles.MAKE_RANDOM_PROBLEM.invokeExact(problem, n, 0L);
+    }
+
+    @Benchmark
+    public Object makeRandomProblem() throws Throwable {
+        Handles.MAKE_RANDOM_PROBLEM.invokeExact(problem, n, 0L);
+        return problem;
+    }
+
+    @Benchmark
+    public Object reduceToSAT() throws Throwable {
+        return (Object)Handles.REDUCE_TO_SAT.invokeExact(problem);
+    }
+}
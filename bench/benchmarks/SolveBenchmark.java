@@ -0,0 +1,44 @@
+package benchmarks;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Solving the reduction of a random Hamiltonian path problem with DPLL.
+ * The solver works on its own copy of the clauses, so every call
+ * starts from scratch
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SolveBenchmark {
+    @Param({"10", "20", "30"})
+    int n; // Number of vertices
+
+    Object cnf; // CNF
+
+    @Setup
+    public void setup() throws Throwable {
+        Object problem = (Object)Handles.NEW_HAMILTONIAN_PATH.invokeExact();
+        Handles.MAKE_RANDOM_PROBLEM.invokeExact(problem, n, 0L);
+        cnf = (Object)Handles.REDUCE_TO_SAT.invokeExact(problem);
+    }
+
+    @Benchmark
+    public Object solveDPLL() throws Throwable {
+        return (Object)Handles.SOLVE_DPLL.invokeExact(cnf);
+    }
+}
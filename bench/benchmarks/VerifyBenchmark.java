@@ -0,0 +1,45 @@
+package benchmarks;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Checking a Hamiltonian path certificate against its problem
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class VerifyBenchmark {
+    @Param({"10", "20", "40"})
+    int n; // Number of vertices
+
+    Object problem; // HamiltonianPath
+    Object cert; // HamiltonianPathCert
+
+    @Setup
+    public void setup() throws Throwable {
+        problem = (Object)Handles.NEW_HAMILTONIAN_PATH.invokeExact();
+        Handles.MAKE_RANDOM_PROBLEM.invokeExact(problem, n, 0L);
+        Object cnf = (Object)Handles.REDUCE_TO_SAT.invokeExact(problem);
+        boolean[] model = (boolean[])(Object)Handles.SOLVE_DPLL.invokeExact(cnf);
+        cert = (Object)Handles.NEW_HAMILTONIAN_PATH_CERT.invokeExact((Object)model, n);
+    }
+
+    @Benchmark
+    public boolean verify() throws Throwable {
+        return (boolean)Handles.VERIFY.invokeExact(cert, problem);
+    }
+}
@@ -0,0 +1,245 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * A compact binary file format for CNF expressions, which is several
+ * times smaller than DIMACS text and much faster to load.
+ *
+ * The file starts with a 32 byte little-endian header:
+ *     magic "CNFB", version, N, block size, number of clauses (long),
+ *     offset of the block index (long)
+ * followed by the clauses.  Each clause is its number of literals, and
+ * then its literals in signed 1-indexed format (like DIMACS), sorted in
+ * increasing order, with each one stored as the difference from the one
+ * before it (the first is stored as is).  Every number is zig-zag encoded,
+ * so that small negative numbers are small too, and written as a varint:
+ * 7 bits per byte, with the high bit set on every byte but the last.
+ * Since the literals are sorted, the order of literals within a clause
+ * is not kept.
+ *
+ * At the end is the block index: the file offset (long) of the first
+ * clause of every block of "block size" clauses, which lets a reader
+ * start at any clause without decoding everything before it.
+ * Files are read by memory mapping them (see MappedClauseStore)
+ */
+class BinaryCNF {
+    static final int MAGIC = 0x42464E43; // "CNFB" read as a little-endian int
+    static final int VERSION = 1;
+    static final int HEADER_SIZE = 32;
+    static final int DEFAULT_BLOCK_SIZE = 4096;
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    /**
+     * Write an expression to a file with the default block size
+     * @param cnf Expression to write
+     * @param file Where to write it
+     * @throws IOException If the file can't be written
+     */
+    public static void write(CNF cnf, Path file) throws IOException {
+        write(cnf, file, DEFAULT_BLOCK_SIZE);
+    }
+
+    /**
+     * Write an expression to a file
+     * @param cnf Expression to write
+     * @param file Where to write it
+     * @param blockSize Number of clauses in each block of the index
+     * @throws IOException If the file can't be written
+     */
+    public static void write(CNF cnf, Path file, int blockSize) throws IOException {
+        FileChannel out = FileChannel.open(file, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+        try {
+            Encoder e = new Encoder(out, blockSize);
+            ClauseIterator it = cnf.clauseIterator();
+            while (it.next()) {
+                e.startClause(it.size());
+                for (int k = 0; k < it.size(); k++) {
+                    e.addLit(it.lit(k));
+                }
+                e.endClause();
+            }
+            e.finish(cnf.N);
+        }
+        finally {
+            out.close();
+        }
+    }
+
+    /**
+     * Load an expression into memory
+     * @param file File to load
+     * @return A new expression with the clauses in the file
+     * @throws IOException If the file can't be read or isn't in this format
+     */
+    public static CNF read(Path file) throws IOException {
+        CNF cnf = new CNF();
+        MappedClauseStore mapped = new MappedClauseStore(file);
+        try {
+            IntVec lits = new IntVec();
+            ClauseIterator it = mapped.iterator();
+            while (it.next()) {
+                lits.clear();
+                for (int k = 0; k < it.size(); k++) {
+                    lits.push(it.lit(k));
+                }
+                cnf.addClause(lits);
+            }
+            cnf.N = Math.max(cnf.N, mapped.N);
+        }
+        finally {
+            mapped.close();
+        }
+        return cnf;
+    }
+
+    /**
+     * Use the clauses in a file without copying them, by memory mapping
+     * the file.  No clauses can be added to the expression, and it should
+     * be closed when it's no longer needed
+     * @param file File to map
+     * @return An expression whose clauses are in the file
+     * @throws IOException If the file can't be read or isn't in this format
+     */
+    public static CNF map(Path file) throws IOException {
+        MappedClauseStore mapped = new MappedClauseStore(file);
+        CNF cnf = new CNF(mapped);
+        cnf.N = mapped.N;
+        return cnf;
+    }
+
+    static int zigZag(int x) {
+        return (x << 1) ^ (x >> 31);
+    }
+
+    static int unZigZag(int x) {
+        return (x >>> 1) ^ -(x & 1);
+    }
+
+    /**
+     * Writes clauses in the binary format to a channel, keeping track of
+     * where each block starts.  The header is written last, once the
+     * number of clauses and the index offset are known
+     */
+    static class Encoder {
+        private FileChannel out;
+        private ByteBuffer buf;
+        private long pos; // File offset of the start of the buffer
+        private int blockSize;
+        private long numClauses;
+        private long[] blockOffsets;
+        private int numBlocks;
+        private int[] lits; // Literals of the current clause
+        private int size;
+
+        /**
+         * @param out Channel to write to, at position 0
+         * @param blockSize Number of clauses in each block of the index
+         * @throws IOException If the channel can't be written
+         */
+        public Encoder(FileChannel out, int blockSize) throws IOException {
+            this.out = out;
+            this.blockSize = blockSize;
+            buf = ByteBuffer.allocate(BUFFER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+            blockOffsets = new long[16];
+            lits = new int[16];
+            // Leave room for the header
+            out.position(HEADER_SIZE);
+            pos = HEADER_SIZE;
+        }
+
+        /**
+         * Start a clause
+         * @param n Number of literals in the clause
+         */
+        public void startClause(int n) {
+            if (lits.length < n) {
+                lits = new int[Math.max(n, 2*lits.length)];
+            }
+            size = 0;
+        }
+
+        /**
+         * Add a literal to the current clause
+         * @param lit Literal, 2*var for xvar and 2*var+1 for ¬xvar
+         */
+        public void addLit(int lit) {
+            lits[size++] = CNF.fromLit(lit);
+        }
+
+        /**
+         * Sort the literals of the current clause and write it
+         * @throws IOException If the channel can't be written
+         */
+        public void endClause() throws IOException {
+            if (numClauses % blockSize == 0) {
+                if (numBlocks == blockOffsets.length) {
+                    blockOffsets = Arrays.copyOf(blockOffsets, 2*numBlocks);
+                }
+                blockOffsets[numBlocks++] = pos + buf.position();
+            }
+            Arrays.sort(lits, 0, size);
+            writeVarint(size);
+            int prev = 0;
+            for (int k = 0; k < size; k++) {
+                writeVarint(zigZag(lits[k] - prev));
+                prev = lits[k];
+            }
+            numClauses++;
+        }
+
+        private void writeVarint(int x) throws IOException {
+            if (buf.remaining() < 5) {
+                flushBuffer();
+            }
+            while ((x & ~0x7F) != 0) {
+                buf.put((byte)((x & 0x7F) | 0x80));
+                x >>>= 7;
+            }
+            buf.put((byte)x);
+        }
+
+        private void flushBuffer() throws IOException {
+            buf.flip();
+            pos += buf.remaining();
+            while (buf.hasRemaining()) {
+                out.write(buf);
+            }
+            buf.clear();
+        }
+
+        /**
+         * Write the block index and the header
+         * @param N Number of variables
+         * @throws IOException If the channel can't be written
+         */
+        public void finish(int N) throws IOException {
+            flushBuffer();
+            long indexOffset = pos;
+            for (int b = 0; b < numBlocks; b++) {
+                if (buf.remaining() < 8) {
+                    flushBuffer();
+                }
+                buf.putLong(blockOffsets[b]);
+            }
+            flushBuffer();
+            buf.putInt(MAGIC);
+            buf.putInt(VERSION);
+            buf.putInt(N);
+            buf.putInt(blockSize);
+            buf.putLong(numClauses);
+            buf.putLong(indexOffset);
+            buf.flip();
+            long at = 0;
+            while (buf.hasRemaining()) {
+                at += out.write(buf, at);
+            }
+            buf.clear();
+        }
+    }
+}
@@ -0,0 +1,52 @@
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * A ClauseSink that writes clauses to a file in the BinaryCNF format as
+ * they come in.  The header and block index are written by close()
+ */
+class BinaryClauseSink implements ClauseSink, AutoCloseable {
+    private FileChannel out;
+    private BinaryCNF.Encoder encoder;
+    private int N;
+
+    /**
+     * @param file Where to write the clauses
+     * @throws IOException If the file can't be opened
+     */
+    public BinaryClauseSink(Path file) throws IOException {
+        out = FileChannel.open(file, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+        encoder = new BinaryCNF.Encoder(out, BinaryCNF.DEFAULT_BLOCK_SIZE);
+    }
+
+    public void addClause(int[] index, boolean[] pos) {
+        encoder.startClause(index.length);
+        for (int i = 0; i < index.length; i++) {
+            N = Math.max(N, index[i]+1);
+            encoder.addLit(2*index[i] + (pos[i] ? 0 : 1));
+        }
+        try {
+            encoder.endClause();
+        }
+        catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Write the block index and the header
+     * @throws IOException If the file can't be written
+     */
+    public void close() throws IOException {
+        try {
+            encoder.finish(N);
+        }
+        finally {
+            out.close();
+        }
+    }
+}
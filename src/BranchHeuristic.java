@@ -0,0 +1,30 @@
+/**
+ * A rule for choosing which variable to branch on next.  Solvers tell the
+ * heuristic about variables involved in conflicts and about variables that
+ * become unassigned when they backtrack
+ */
+interface BranchHeuristic {
+    /**
+     * Choose an unassigned variable to branch on
+     * @param trail Current assignment
+     * @return A variable, or -1 if every variable has been assigned
+     */
+    int pickBranchVar(Trail trail);
+
+    /**
+     * Called for every variable that becomes unassigned on a backtrack
+     * @param v Variable
+     */
+    void onUnassign(int v);
+
+    /**
+     * Called for every variable that takes part in a conflict
+     * @param v Variable
+     */
+    void bump(int v);
+
+    /**
+     * Called once after each conflict has been analyzed
+     */
+    void onConflict();
+}
@@ -0,0 +1,255 @@
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Tries every assignment, for use as a ground truth on small expressions.
+ *
+ * The variables are split into three groups:
+ *   The first (up to) 6 variables are checked 64 assignments at a time,
+ *   one per bit of a long.  Bit b of an assignment has xi = ((b>>i)&1),
+ *   so for each clause we can precompute a mask of the bits where its
+ *   literals among these variables make it true.
+ *   The next few "prefix" variables are fixed differently in each task,
+ *   and the tasks are run in parallel on a ForkJoinPool.
+ *   The rest are enumerated in Gray code order, so that only one
+ *   variable flips at each step.  Each clause keeps a count of its true
+ *   literals among these and the prefix variables, and a flip only
+ *   updates the clauses that contain the flipped variable.
+ * A clause whose count is 0 is "open", and the assignment satisfies the
+ * clauses at bit b if every open clause is true at bit b, which we check
+ * by ANDing together the masks of the open clauses.
+ *
+ * Literals are encoded as 2*var for xvar and 2*var+1 for ¬xvar
+ */
+class BruteForceSolver {
+    private static final int LOW = 6; // Number of variables packed into the bits of a long
+    private static final long[] PATTERN = {
+        0xAAAAAAAAAAAAAAAAL, 0xCCCCCCCCCCCCCCCCL, 0xF0F0F0F0F0F0F0F0L,
+        0xFF00FF00FF00FF00L, 0xFFFF0000FFFF0000L, 0xFFFFFFFF00000000L
+    };
+    private static final int CHECK_INTERVAL = 1024; // Steps between checks of whether another task is done
+
+    private int N; // Number of variables
+    private int low; // Number of variables in the bits
+    private int prefix; // Number of variables fixed by each task
+    private int numClauses;
+    private long[] lowMask; // Bits at which each clause is true because of its first "low" variables
+    // Clauses containing literal l of a higher variable are occ[occStart[l]] to occ[occStart[l+1]-1]
+    private int[] occStart;
+    private int[] occ;
+    private int threads;
+
+    /**
+     * @param cnf The expression to solve.  It should have at most about
+     *            40 variables
+     * @param options Settings for the number of threads
+     */
+    public BruteForceSolver(CNF cnf, SolverOptions options) {
+        N = cnf.N;
+        low = Math.min(LOW, N);
+        threads = Math.max(1, options.threads);
+        // Aim for several tasks per thread so that they balance out
+        prefix = 0;
+        while (low + prefix < N && (1 << prefix) < 8*threads && prefix < 20) {
+            prefix++;
+        }
+        numClauses = cnf.getNumClauses();
+        lowMask = new long[numClauses];
+        occStart = new int[2*N+1];
+        ClauseIterator it = cnf.clauseIterator();
+        while (it.next()) {
+            for (int k = 0; k < it.size(); k++) {
+                if ((it.lit(k)>>1) >= low) {
+                    occStart[it.lit(k)+1]++;
+                }
+            }
+        }
+        for (int l = 0; l < 2*N; l++) {
+            occStart[l+1] += occStart[l];
+        }
+        occ = new int[occStart[2*N]];
+        int[] fill = new int[2*N];
+        it = cnf.clauseIterator();
+        int c = 0;
+        while (it.next()) {
+            for (int k = 0; k < it.size(); k++) {
+                int lit = it.lit(k);
+                if ((lit>>1) < low) {
+                    lowMask[c] |= (lit&1) == 0 ? PATTERN[lit>>1] : ~PATTERN[lit>>1];
+                }
+                else {
+                    occ[occStart[lit] + fill[lit]++] = c;
+                }
+            }
+            c++;
+        }
+    }
+
+    /**
+     * Run the search
+     * @return The assignment of literals that satisfies the clauses,
+     *         or null if they are not satisfiable
+     */
+    public boolean[] solve() {
+        PhaseEvents.Recorder event = PhaseEvents.SOLVE.begin();
+        AtomicBoolean found = new AtomicBoolean(false);
+        AtomicReference<boolean[]> model = new AtomicReference<boolean[]>();
+        ForkJoinPool pool = new ForkJoinPool(threads);
+        try {
+            pool.invoke(new Range(0, 1 << prefix, found, model));
+        }
+        finally {
+            pool.shutdown();
+        }
+        event.finish(getClass().getSimpleName(), N, model.get() != null, false, 0, 0);
+        return model.get();
+    }
+
+    /**
+     * Searches the prefixes in [lo, hi), splitting the range in half
+     * until only one prefix is left
+     */
+    private class Range extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private int lo, hi;
+        private AtomicBoolean found;
+        private AtomicReference<boolean[]> model;
+
+        public Range(int lo, int hi, AtomicBoolean found, AtomicReference<boolean[]> model) {
+            this.lo = lo;
+            this.hi = hi;
+            this.found = found;
+            this.model = model;
+        }
+
+        protected void compute() {
+            if (hi - lo == 1) {
+                boolean[] res = new Enumeration(lo).run(found);
+                if (res != null && model.compareAndSet(null, res)) {
+                    found.set(true);
+                }
+            }
+            else {
+                int mid = (lo + hi)/2;
+                invokeAll(new Range(lo, mid, found, model), new Range(mid, hi, found, model));
+            }
+        }
+    }
+
+    /**
+     * The Gray code enumeration of the variables after the prefix, with
+     * the prefix variables fixed
+     */
+    private class Enumeration {
+        private boolean[] vals; // Values of the variables above the low ones
+        private int[] numTrue; // Number of true literals in each clause, not counting the low variables
+        private int[] open; // Open clauses that are true at some bit, in no particular order
+        private int[] openPos; // Position of each of those clauses in open
+        private int numOpen;
+        private int alwaysFalse; // Number of open clauses that are false at every bit
+
+        /**
+         * @param p Values of the prefix variables, one per bit
+         */
+        public Enumeration(int p) {
+            vals = new boolean[N];
+            for (int i = 0; i < prefix; i++) {
+                vals[low+i] = ((p >> i) & 1) == 1;
+            }
+            numTrue = new int[numClauses];
+            open = new int[numClauses];
+            openPos = new int[numClauses];
+            for (int v = low; v < N; v++) {
+                int lit = vals[v] ? 2*v : 2*v+1;
+                for (int i = occStart[lit]; i < occStart[lit+1]; i++) {
+                    numTrue[occ[i]]++;
+                }
+            }
+            for (int c = 0; c < numClauses; c++) {
+                if (numTrue[c] == 0) {
+                    open(c);
+                }
+            }
+        }
+
+        private void open(int c) {
+            if (lowMask[c] == 0) {
+                alwaysFalse++;
+            }
+            else {
+                openPos[c] = numOpen;
+                open[numOpen++] = c;
+            }
+        }
+
+        private void close(int c) {
+            if (lowMask[c] == 0) {
+                alwaysFalse--;
+            }
+            else {
+                int last = open[--numOpen];
+                open[openPos[c]] = last;
+                openPos[last] = openPos[c];
+            }
+        }
+
+        private void flip(int v) {
+            int made = vals[v] ? 2*v+1 : 2*v; // Literal that becomes true
+            vals[v] = !vals[v];
+            for (int i = occStart[made]; i < occStart[made+1]; i++) {
+                int c = occ[i];
+                if (numTrue[c]++ == 0) {
+                    close(c);
+                }
+            }
+            int broken = made^1;
+            for (int i = occStart[broken]; i < occStart[broken+1]; i++) {
+                int c = occ[i];
+                if (--numTrue[c] == 0) {
+                    open(c);
+                }
+            }
+        }
+
+        /**
+         * @return The model at the current step, or null if there is none
+         */
+        private boolean[] check() {
+            boolean[] res = null;
+            long good = alwaysFalse == 0 ? -1L : 0;
+            for (int i = 0; i < numOpen && good != 0; i++) {
+                good &= lowMask[open[i]];
+            }
+            if (good != 0) {
+                int b = Long.numberOfTrailingZeros(good);
+                res = vals.clone();
+                for (int i = 0; i < low; i++) {
+                    res[i] = ((b >> i) & 1) == 1;
+                }
+            }
+            return res;
+        }
+
+        /**
+         * Visit every assignment of the variables after the prefix
+         * @param found Set once any task has found a model
+         * @return A model, or null if there is none or another task found one first
+         */
+        public boolean[] run(AtomicBoolean found) {
+            int first = low + prefix;
+            long steps = 1L << (N - first);
+            boolean[] res = check();
+            for (long g = 1; g < steps && res == null; g++) {
+                if (g % CHECK_INTERVAL == 0 && found.get()) {
+                    break;
+                }
+                flip(first + Long.numberOfTrailingZeros(g));
+                res = check();
+            }
+            return res;
+        }
+    }
+}
@@ -0,0 +1,573 @@
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * A conflict-driven clause learning (CDCL) SAT solver.  Every assignment
+ * remembers the clause that forced it (its "reason"), which gives an
+ * implication graph.  When a clause becomes false, we walk this graph
+ * back to the first unique implication point (1-UIP) of the current
+ * decision level, learn a clause that rules out this combination, drop
+ * any literals from it that are implied by the others, and jump back to
+ * the level at which the learned clause becomes unit, rather than just
+ * undoing the most recent decision.
+ *
+ * Every so often (as decided by a RestartPolicy) the solver undoes all
+ * of its decisions.  With phase saving, each decision variable is given
+ * the value it last had, so a restart mostly goes back to the part of
+ * the search it was in, but in an order that reflects the new activities.
+ * Learned clauses are kept in a LearntClauseDB, which periodically
+ * deletes the ones that don't seem useful.
+ *
+ * When run as part of a portfolio, the solver shares short learned clauses
+ * through a ClauseExchange, and gives up as soon as its stop flag is set.
+ * Clauses from the other solvers are picked up at level 0: whenever it
+ * restarts or learns a unit clause, and every IMPORT_INTERVAL conflicts
+ * if anything is waiting, so that solvers which seldom restart get them too.
+ *
+ * If a DratWriter is given, every learned clause is logged as a lemma
+ * and every clause the LearntClauseDB deletes is logged as a deletion,
+ * which gives a DRAT proof whenever the clauses are unsatisfiable.
+ *
+ * If options.stats is on, progress is reported to SolverStats every
+ * STATS_INTERVAL conflicts and at every restart, so a long search can be
+ * watched over JMX.
+ *
+ * Clauses are kept in a ClauseArena and propagated with a WatchIndex.
+ * Literals are encoded as 2*var for xvar and 2*var+1 for ¬xvar
+ */
+class CDCLSolver {
+    protected static final int STATS_INTERVAL = 64; // Conflicts between reports to SolverStats (a power of 2)
+    protected static final int IMPORT_INTERVAL = 256; // Conflicts between checks for shared clauses, besides restarts (a power of 2)
+
+    protected int N; // Number of variables
+    protected boolean unsat; // Whether the clauses have been found to be unsatisfiable
+
+    protected ClauseArena arena; // Clause storage
+    protected WatchIndex watches; // Unit propagation over the arena
+    protected LearntClauseDB db; // Learned clauses
+    protected Trail trail; // Current assignment
+    protected BranchHeuristic heuristic; // How to choose decision variables
+    protected RestartPolicy restartPolicy; // When to restart, or null for never
+    protected boolean phaseSaving; // Whether to reuse the last value of a variable when branching
+    protected byte[] phase; // Last value each variable had
+
+    // Working memory for conflict analysis
+    protected byte[] seen;
+    protected IntVec learnt;
+    protected IntVec analyzeStack;
+    protected IntVec analyzeToClear;
+    protected int lbd; // Literal block distance of the most recent learned clause
+
+    // Assumptions
+    protected IntVec assumptions; // Literals that are decided first, in order, at every search
+    protected IntVec failed; // Assumptions that together led to unsatisfiability
+
+    // Running in a portfolio
+    protected AtomicBoolean stop; // Set by another thread to ask this solver to give up
+    protected boolean stopped; // Whether the last call to solve() gave up
+    protected ClauseExchange exchange; // Where to share learned clauses, or null
+    protected int exchangeId; // Which inbox of the exchange belongs to this solver
+    protected int shareMaxSize, shareMaxLBD;
+    private boolean importDue; // Whether to check for shared clauses as soon as propagation is done
+
+    protected DratWriter proof; // Where to log a proof of unsatisfiability, or null
+
+    // Statistics
+    protected long decisions, conflicts, restarts;
+    protected SolverStats.Tracker stats; // Where to report them, or null
+
+    /**
+     * Build a solver over a snapshot of the clauses of a CNF
+     * @param cnf The expression to solve
+     * @param options Settings for this solver
+     */
+    public CDCLSolver(CNF cnf, SolverOptions options) {
+        N = cnf.N;
+        heuristic = options.makeHeuristic(N);
+        restartPolicy = options.makeRestartPolicy();
+        phaseSaving = options.phaseSaving;
+        phase = new byte[N];
+        Random r = new Random(options.seed);
+        for (int i = 0; i < N; i++) {
+            phase[i] = Trail.FALSE;
+            if (options.seed != 0 && r.nextBoolean()) {
+                phase[i] = Trail.TRUE;
+            }
+        }
+        assumptions = new IntVec();
+        failed = new IntVec();
+        shareMaxSize = options.shareMaxSize;
+        shareMaxLBD = options.shareMaxLBD;
+        arena = new ClauseArena();
+        watches = new WatchIndex(arena, N);
+        trail = new Trail(N);
+        seen = new byte[N];
+        learnt = new IntVec();
+        analyzeStack = new IntVec();
+        analyzeToClear = new IntVec();
+        unsat = !watches.load(cnf, trail);
+        db = new LearntClauseDB(arena, watches, trail, options);
+        if (options.stats) {
+            stats = new SolverStats.Tracker(SolverStats.get());
+        }
+    }
+
+    /**
+     * Report the statistics so far to SolverStats
+     */
+    protected void reportStats() {
+        stats.update(decisions, watches.propagations, conflicts, restarts, db.size(), trail.decisionLevel());
+    }
+
+    /**
+     * Ask this solver to give up whenever a flag is set
+     * @param stop Flag that another thread will set
+     */
+    public void setStop(AtomicBoolean stop) {
+        this.stop = stop;
+    }
+
+    /**
+     * @return Whether the last call to solve() gave up because the stop
+     *         flag was set, rather than finding an answer
+     */
+    public boolean wasStopped() {
+        return stopped;
+    }
+
+    /**
+     * Share learned clauses with other solvers
+     * @param exchange Exchange that the other solvers use
+     * @param id Index of this solver's inbox in the exchange
+     */
+    public void setExchange(ClauseExchange exchange, int id) {
+        this.exchange = exchange;
+        exchangeId = id;
+    }
+
+    /**
+     * Log a DRAT proof whenever the clauses turn out to be unsatisfiable.
+     * The proof is for the clauses the solver was built with, so it can't
+     * be used along with clauses that are added later or shared by other
+     * solvers
+     * @param proof Where to write the proof
+     */
+    public void setProof(DratWriter proof) {
+        this.proof = proof;
+        db.setProof(proof);
+    }
+
+    /**
+     * Add another clause to the problem.  This undoes every decision, so
+     * it should be called between searches
+     * @param lits Literals of the clause (this will be modified)
+     * @return False if the clauses are now known to be unsatisfiable
+     */
+    public boolean addClause(IntVec lits) {
+        cancelUntil(0);
+        if (!unsat) {
+            unsat = !watches.addClause(lits, trail);
+        }
+        return !unsat;
+    }
+
+    /**
+     * Add the clauses that other solvers have shared since the last time
+     * we checked.  This has to happen at decision level 0, since a shared
+     * clause may be false or unit under the current assignment
+     */
+    protected void importClauses() {
+        IntVec lits = new IntVec();
+        int[] shared = exchange.poll(exchangeId);
+        while (shared != null && !unsat) {
+            // shared[0] is the LBD, and the rest are literals
+            lits.clear();
+            boolean satisfied = false;
+            for (int k = 1; k < shared.length && !satisfied; k++) {
+                byte v = trail.litValue(shared[k]);
+                if (v == Trail.TRUE) {
+                    satisfied = true;
+                }
+                else if (v == Trail.UNASSIGNED) {
+                    lits.push(shared[k]);
+                }
+            }
+            if (!satisfied) {
+                if (lits.size == 0) {
+                    unsat = true;
+                }
+                else if (lits.size == 1) {
+                    trail.enqueue(lits.data[0], Trail.NO_REASON);
+                }
+                else {
+                    db.add(lits, Math.min(shared[0], lits.size));
+                }
+            }
+            shared = exchange.poll(exchangeId);
+        }
+    }
+
+    /**
+     * Undo all assignments above a given decision level
+     * @param lev Decision level to go back to
+     */
+    protected void cancelUntil(int lev) {
+        if (trail.decisionLevel() > lev) {
+            for (int i = trail.size-1; i >= trail.levelStart(lev+1); i--) {
+                int v = trail.lits[i]>>1;
+                phase[v] = trail.value[v];
+                heuristic.onUnassign(v);
+            }
+            trail.cancelUntil(lev);
+        }
+    }
+
+    /**
+     * Find the 1-UIP clause for a conflict.  The asserting literal ends up
+     * in learnt[0], and a literal from the highest remaining level ends
+     * up in learnt[1]
+     * @param confl Clause that has become false
+     * @return Decision level to jump back to
+     */
+    protected int analyze(int confl) {
+        learnt.clear();
+        learnt.push(-1); // Leave room for the asserting literal
+        int pathCount = 0; // Literals of the current level left to resolve
+        int p = -1;
+        int index = trail.size-1;
+        do {
+            if (arena.isLearnt(confl)) {
+                db.onUse(confl);
+            }
+            int size = arena.size(confl);
+            for (int k = (p == -1 ? 0 : 1); k < size; k++) {
+                int q = arena.lit(confl, k);
+                int v = q>>1;
+                if (seen[v] == 0 && trail.level[v] > 0) {
+                    seen[v] = 1;
+                    heuristic.bump(v);
+                    if (trail.level[v] >= trail.decisionLevel()) {
+                        pathCount++;
+                    }
+                    else {
+                        learnt.push(q);
+                    }
+                }
+            }
+            // Walk back along the trail to the next literal we've marked
+            while (seen[trail.lits[index]>>1] == 0) {
+                index--;
+            }
+            p = trail.lits[index];
+            index--;
+            confl = trail.reason[p>>1];
+            seen[p>>1] = 0;
+            pathCount--;
+        } while (pathCount > 0);
+        learnt.data[0] = p^1;
+
+        minimizeLearnt();
+
+        // Find the backjump level, and put a literal of that level second
+        int btLevel = 0;
+        if (learnt.size > 1) {
+            int maxI = 1;
+            for (int i = 2; i < learnt.size; i++) {
+                if (trail.level[learnt.data[i]>>1] > trail.level[learnt.data[maxI]>>1]) {
+                    maxI = i;
+                }
+            }
+            int tmp = learnt.data[maxI];
+            learnt.data[maxI] = learnt.data[1];
+            learnt.data[1] = tmp;
+            btLevel = trail.level[tmp>>1];
+        }
+        for (int i = 0; i < analyzeToClear.size; i++) {
+            seen[analyzeToClear.data[i]>>1] = 0;
+        }
+        lbd = db.computeLBD(learnt);
+        heuristic.onConflict();
+        db.onConflict();
+        return btLevel;
+    }
+
+    /**
+     * Remove literals from the learned clause that are implied by
+     * the other literals in it (recursive minimization)
+     */
+    private void minimizeLearnt() {
+        analyzeToClear.clear();
+        for (int i = 0; i < learnt.size; i++) {
+            analyzeToClear.push(learnt.data[i]);
+        }
+        // A bitmask of the levels in the clause, to quickly rule out literals
+        int abstractLevels = 0;
+        for (int i = 1; i < learnt.size; i++) {
+            abstractLevels |= abstractLevel(learnt.data[i]>>1);
+        }
+        int j = 1;
+        for (int i = 1; i < learnt.size; i++) {
+            int v = learnt.data[i]>>1;
+            if (trail.reason[v] == Trail.NO_REASON || !litRedundant(learnt.data[i], abstractLevels)) {
+                learnt.data[j++] = learnt.data[i];
+            }
+        }
+        learnt.shrink(j);
+    }
+
+    private int abstractLevel(int v) {
+        return 1 << (trail.level[v] & 31);
+    }
+
+    /**
+     * Check whether a literal in the learned clause is implied by the
+     * other literals that are marked as seen
+     * @param p Literal to check
+     * @param abstractLevels Bitmask of levels in the learned clause
+     * @return True if the literal can be removed
+     */
+    private boolean litRedundant(int p, int abstractLevels) {
+        analyzeStack.clear();
+        analyzeStack.push(p);
+        int top = analyzeToClear.size;
+        boolean redundant = true;
+        while (analyzeStack.size > 0 && redundant) {
+            int cr = trail.reason[analyzeStack.pop()>>1];
+            int size = arena.size(cr);
+            for (int k = 1; k < size && redundant; k++) {
+                int q = arena.lit(cr, k);
+                int v = q>>1;
+                if (seen[v] == 0 && trail.level[v] > 0) {
+                    if (trail.reason[v] != Trail.NO_REASON && (abstractLevel(v) & abstractLevels) != 0) {
+                        seen[v] = 1;
+                        analyzeStack.push(q);
+                        analyzeToClear.push(q);
+                    }
+                    else {
+                        redundant = false;
+                    }
+                }
+            }
+        }
+        if (!redundant) {
+            // Unmark everything we marked while exploring this literal
+            for (int i = top; i < analyzeToClear.size; i++) {
+                seen[analyzeToClear.data[i]>>1] = 0;
+            }
+            analyzeToClear.shrink(top);
+        }
+        return redundant;
+    }
+
+    /**
+     * Find the assumptions that caused an assumption to be false, by
+     * walking back along the reasons from it.  Every decision on the way
+     * is an assumption, since assumptions are decided before anything else
+     * @param p The assumption that is false
+     */
+    protected void analyzeFinal(int p) {
+        failed.clear();
+        failed.push(p);
+        if (trail.level[p>>1] > 0) {
+            seen[p>>1] = 1;
+            for (int i = trail.size-1; i >= trail.levelStart(1); i--) {
+                int v = trail.lits[i]>>1;
+                if (seen[v] == 1) {
+                    int cr = trail.reason[v];
+                    if (cr == Trail.NO_REASON) {
+                        failed.push(trail.lits[i]);
+                    }
+                    else {
+                        for (int k = 1; k < arena.size(cr); k++) {
+                            int u = arena.lit(cr, k)>>1;
+                            if (trail.level[u] > 0) {
+                                seen[u] = 1;
+                            }
+                        }
+                    }
+                    seen[v] = 0;
+                }
+            }
+            seen[p>>1] = 0;
+        }
+    }
+
+    /**
+     * Decide the next assumption that isn't already true
+     * @return The assumption to decide, or -1 if every assumption has
+     *         been decided or one of them is false (in which case failed
+     *         is filled in)
+     */
+    protected int pickAssumption() {
+        int lit = -1;
+        while (lit == -1 && failed.size == 0 && trail.decisionLevel() < assumptions.size) {
+            int p = assumptions.data[trail.decisionLevel()];
+            byte v = trail.litValue(p);
+            if (v == Trail.TRUE) {
+                trail.newDecisionLevel(); // Keep one level per assumption
+            }
+            else if (v == Trail.FALSE) {
+                analyzeFinal(p);
+            }
+            else {
+                lit = p;
+            }
+        }
+        return lit;
+    }
+
+    /**
+     * Choose the next literal to branch on
+     * @return A literal, or -1 if every variable has been assigned
+     */
+    protected int pickBranchLit() {
+        int v = heuristic.pickBranchVar(trail);
+        int lit = -1;
+        if (v != -1) {
+            lit = 2*v+1; // Try false first
+            if (phaseSaving && phase[v] == Trail.TRUE) {
+                lit = 2*v;
+            }
+        }
+        return lit;
+    }
+
+    /**
+     * Run the search, starting over from level 0 but keeping the learned
+     * clauses from any earlier searches
+     * @return The assignment of literals that satisfies the clauses and
+     *         the assumptions, or null if there is none
+     */
+    public boolean[] solve() {
+        cancelUntil(0);
+        boolean done = unsat;
+        boolean sat = false;
+        stopped = false;
+        failed.clear();
+        PhaseEvents.Recorder event = PhaseEvents.SOLVE.begin();
+        if (stats != null) {
+            stats.start();
+        }
+        if (exchange != null && !done) {
+            importClauses();
+            done = unsat;
+        }
+        importDue = false;
+        while (!done) {
+            if (stop != null && stop.get()) {
+                stopped = true;
+                done = true;
+                continue;
+            }
+            int confl = watches.propagate(trail);
+            if (confl != Trail.NO_REASON) {
+                conflicts++;
+                if (stats != null && (conflicts & (STATS_INTERVAL-1)) == 0) {
+                    reportStats();
+                }
+                if (trail.decisionLevel() == 0) {
+                    unsat = true;
+                    done = true;
+                }
+                else {
+                    int btLevel = analyze(confl);
+                    if (proof != null) {
+                        proof.add(learnt);
+                    }
+                    cancelUntil(btLevel);
+                    if (exchange != null && learnt.size <= shareMaxSize && lbd <= shareMaxLBD) {
+                        exchange.publish(exchangeId, learnt, lbd);
+                    }
+                    if (learnt.size == 1) {
+                        trail.enqueue(learnt.data[0], Trail.NO_REASON);
+                        if (exchange != null) {
+                            // We're back at level 0 anyway, so take
+                            // what the others have shared
+                            importClauses();
+                            done = unsat;
+                        }
+                    }
+                    else {
+                        int cr = db.add(learnt, lbd);
+                        trail.enqueue(learnt.data[0], cr);
+                    }
+                    if (exchange != null && (conflicts & (IMPORT_INTERVAL-1)) == 0) {
+                        importDue = true;
+                    }
+                    if (restartPolicy != null) {
+                        restartPolicy.onConflict(lbd);
+                    }
+                }
+            }
+            else if (importDue) {
+                // Without this, a solver that restarts rarely or never
+                // would hardly ever see the other solvers' clauses
+                importDue = false;
+                if (!exchange.isEmpty(exchangeId)) {
+                    cancelUntil(0);
+                    importClauses();
+                    done = unsat;
+                }
+            }
+            else if (restartPolicy != null && restartPolicy.shouldRestart()) {
+                restarts++;
+                if (stats != null) {
+                    reportStats();
+                }
+                cancelUntil(0);
+                restartPolicy.onRestart();
+                if (exchange != null) {
+                    importClauses();
+                    done = unsat;
+                }
+            }
+            else if (db.shouldReduce(conflicts)) {
+                db.reduce(conflicts);
+            }
+            else {
+                int lit = pickAssumption();
+                if (lit == -1 && failed.size == 0) {
+                    lit = pickBranchLit();
+                }
+                if (failed.size > 0) {
+                    done = true; // Unsatisfiable under the assumptions
+                }
+                else if (lit == -1) {
+                    sat = true;
+                    done = true;
+                }
+                else {
+                    decisions++;
+                    trail.newDecisionLevel();
+                    trail.enqueue(lit, Trail.NO_REASON);
+                }
+            }
+        }
+        if (stats != null) {
+            reportStats();
+            stats.finish();
+        }
+        event.finish(getClass().getSimpleName(), N, sat, stopped, decisions, conflicts);
+        if (proof != null) {
+            if (unsat) {
+                proof.add(new IntVec());
+            }
+            try {
+                proof.flush();
+            }
+            catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+        boolean[] res = null;
+        if (sat) {
+            res = new boolean[N];
+            for (int i = 0; i < N; i++) {
+                res[i] = trail.value[i] == Trail.TRUE;
+            }
+        }
+        return res;
+    }
+}
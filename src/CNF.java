@@ -4,49 +4,243 @@
  * implementation of a Davis-Putnam-Logemann-Loveland (DPLL) SAT solver
  */
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.util.*;
+import java.util.function.Function;
 
-class CNF {
+class CNF implements ClauseSink, AutoCloseable {
     /**
      * Devise a string representation of the CNF
      * @param clauses List of clauses
      * @return String representation of clauses
      */
-    public static String getClausesString(ArrayList<int[]> clauses) {
-        String s = "";
-        for (int i = 0; i < clauses.size(); i++) {
-            s += "(";
+    public static String getClausesString(List<int[]> clauses) {
+        StringBuilder s = new StringBuilder();
+        try {
+            renderClauses(clauses, s, Integer.MAX_VALUE);
+        }
+        catch (IOException e) {
+            // A StringBuilder never throws this
+        }
+        return s.toString();
+    }
+
+    /**
+     * Write out a list of clauses a piece at a time, rather than building
+     * one big string
+     * @param clauses List of clauses in signed 1-indexed format
+     * @param out Where to write them
+     * @param maxClauses Most clauses to write before writing a count of
+     *                   the ones that are left instead
+     * @throws IOException If out can't be written
+     */
+    public static void renderClauses(List<int[]> clauses, Appendable out, int maxClauses) throws IOException {
+        int shown = Math.min(clauses.size(), maxClauses);
+        for (int i = 0; i < shown; i++) {
+            out.append("(");
             int[] clause = clauses.get(i);
             for (int k = 0; k < clause.length; k++) {
-                int idx = clause[k];
-                if (idx < 0) {
-                    s += "¬";
-                    idx *= -1;
-                }
-                idx--;
-                s += "x" + idx;
+                renderLiteral(toLit(clause[k]), out);
                 if (k < clause.length-1) {
-                    s += " V ";
+                    out.append(" V ");
                 }
             }
-            s += ")";
+            out.append(")");
             if (i < clauses.size() - 1) {
-                s += " ^ ";
+                out.append(" ^ ");
             }
         }
-        return s;
+        if (shown < clauses.size()) {
+            out.append("... (" + (clauses.size() - shown) + " more clauses)");
+        }
+    }
+
+    /**
+     * Write out a literal as xi or ¬xi
+     * @param lit 2*i for xi or 2*i+1 for ¬xi
+     * @param out Where to write it
+     * @throws IOException If out can't be written
+     */
+    private static void renderLiteral(int lit, Appendable out) throws IOException {
+        if ((lit&1) == 1) {
+            out.append("¬");
+        }
+        out.append("x").append(Integer.toString(lit>>1));
     }
 
-    public ArrayList<int[]> clauses; // Clauses
+    /**
+     * Convert from the CNF class's signed 1-indexed format to the
+     * literal encoding used by the solvers,
+     * where xi is 2*i and ¬xi is 2*i+1
+     * @param idx Signed 1-indexed literal
+     * @return 2*var or 2*var+1
+     */
+    public static int toLit(int idx) {
+        if (idx < 0) {
+            return 2*(-idx-1) + 1;
+        }
+        return 2*(idx-1);
+    }
+
+    /**
+     * Convert from the solvers' literal encoding back to the CNF class's
+     * signed 1-indexed format
+     * @param lit 2*var or 2*var+1
+     * @return Signed 1-indexed literal
+     */
+    public static int fromLit(int lit) {
+        if ((lit&1) == 1) {
+            return -((lit>>1)+1);
+        }
+        return (lit>>1)+1;
+    }
+
+    private ClauseStore store; // Clauses
+    private ArrayList<int[]> clauses; // The clauses as a list, built when first asked for
+    private IntVec scratch; // Working memory for adding clauses
     public int N; // Number of literals
 
     public CNF() {
-        clauses = new ArrayList<int[]>();
+        this(new HeapClauseStore());
+    }
+
+    /**
+     * Make an empty expression whose clauses are kept in a particular
+     * place, such as an OffHeapClauseStore for very large expressions
+     * @param store Where to keep the clauses
+     */
+    public CNF(ClauseStore store) {
+        this.store = store;
+        clauses = null;
+        scratch = new IntVec();
         N = 0;
     }
+
+    /**
+     * Free the memory used by the clauses right away.  The expression
+     * can't be used afterwards
+     */
+    public void close() {
+        store.close();
+        clauses = null;
+    }
     
     public String toString() {
-        return getClausesString(clauses);
+        StringBuilder s = new StringBuilder();
+        try {
+            render(s, Integer.MAX_VALUE);
+        }
+        catch (IOException e) {
+            // A StringBuilder never throws this
+        }
+        return s.toString();
+    }
+
+    /**
+     * Write out the clauses a piece at a time, rather than building one
+     * big string.  If there are too many, only the first ones are written,
+     * followed by the size of the whole expression
+     * @param out Where to write the clauses
+     * @param maxClauses Most clauses to write
+     * @throws IOException If out can't be written
+     */
+    public void render(Appendable out, int maxClauses) throws IOException {
+        ClauseIterator it = clauseIterator();
+        int i = 0;
+        while (i < maxClauses && it.next()) {
+            if (i > 0) {
+                out.append(" ^ ");
+            }
+            out.append("(");
+            for (int k = 0; k < it.size(); k++) {
+                renderLiteral(it.lit(k), out);
+                if (k < it.size()-1) {
+                    out.append(" V ");
+                }
+            }
+            out.append(")");
+            i++;
+        }
+        if (i < getNumClauses()) {
+            out.append(" ^ ... (" + (getNumClauses() - i) + " more clauses; ");
+            out.append(N + " variables and " + getNumClauses() + " clauses in all)");
+        }
+    }
+
+    /**
+     * @return Number of clauses
+     */
+    public int getNumClauses() {
+        return store.size();
+    }
+
+    /**
+     * @return A cursor over the clauses, in the order they were added
+     */
+    public ClauseIterator clauseIterator() {
+        return store.iterator();
+    }
+
+    /**
+     * Return the clauses as a list of arrays in signed 1-indexed format,
+     * where 3 is x2 and -3 is ¬x2.  The list is built the first time it
+     * is asked for after a clause is added, and then shared by every
+     * caller, so it can't be changed, and neither should the arrays in it.
+     * Clauses that are added later don't show up in a list that was
+     * already returned
+     * @return Unmodifiable list of clauses
+     */
+    public List<int[]> getClauses() {
+        return Collections.unmodifiableList(getClauseList());
+    }
+
+    /**
+     * @return The cached list of clauses behind getClauses(), built if
+     *         there isn't one
+     */
+    private ArrayList<int[]> getClauseList() {
+        if (clauses == null) {
+            clauses = new ArrayList<int[]>(store.size());
+            ClauseIterator it = clauseIterator();
+            while (it.next()) {
+                int[] clause = new int[it.size()];
+                for (int k = 0; k < clause.length; k++) {
+                    clause[k] = fromLit(it.lit(k));
+                }
+                clauses.add(clause);
+            }
+        }
+        return clauses;
+    }
+
+    /**
+     * Add a clause whose literals are already in the solvers' encoding
+     * 
+     * @param lits Literals of the clause, 2*var for xvar and 2*var+1 for ¬xvar
+     */
+    public void addClause(IntVec lits) {
+        for (int i = 0; i < lits.size; i++) {
+            if ((lits.data[i]>>1) >= N) {
+                N = (lits.data[i]>>1)+1;
+            }
+        }
+        store.add(lits);
+        clauses = null;
+    }
+
+    /**
+     * Add a clause to the expression
+     * 
+     * @param clause Literals in signed 1-indexed format, where 3 is x2
+     *               and -3 is ¬x2
+     */
+    public void addClause(int[] clause) {
+        scratch.clear();
+        for (int k = 0; k < clause.length; k++) {
+            scratch.push(toLit(clause[k]));
+        }
+        addClause(scratch);
     }
     
     /**
@@ -57,18 +251,11 @@ class CNF {
      *            complement shows up
      */
     public void addClause(int[] index, boolean[] pos) {
-        int[] clause = new int[index.length];
+        scratch.clear();
         for (int i = 0; i < index.length; i++) {
-            int idx = index[i]+1;
-            if (idx > N) {
-                N = idx;
-            }
-            if (!pos[i]) {
-                idx *= -1;
-            }
-            clause[i] = idx;
+            scratch.push(2*index[i] + (pos[i] ? 0 : 1));
         }
-        clauses.add(clause);
+        addClause(scratch);
     }
     
 
@@ -115,18 +302,13 @@ class CNF {
             }
         }
         int i = 0;
-        while(res && i < clauses.size()) {
+        ClauseIterator it = clauseIterator();
+        while(res && it.next()) {
             boolean clauseTrue = false;
             int k = 0;
-            int[] clause = clauses.get(i);
-            while(!clauseTrue && k < clause.length) {
-                int idx = clause[k];
-                boolean flip = false;
-                if (idx < 0) {
-                    flip = true;
-                    idx *= -1;
-                }
-                idx--;
+            while(!clauseTrue && k < it.size()) {
+                int idx = it.lit(k)>>1;
+                boolean flip = (it.lit(k)&1) == 1;
                 if (verbose) {
                     System.out.println("clause " + i + ", k = " + k + ", idx = " + idx);
                 }
@@ -159,6 +341,72 @@ class CNF {
     public boolean isSatisfied(boolean[] vals) {
         return isSatisfied(vals, false);
     }
+
+    /**
+     * Check many assignments at once.  Assignments are packed 64 to a
+     * long, so that bit b of word w of a variable's column is its value in
+     * assignment 64*w + b.  Each clause is then checked for 64 assignments
+     * at a time by ORing together the columns of its literals (inverted
+     * for negated literals), and ANDing the result into the answer
+     * 
+     * @param cols cols[i][w] holds the values of xi in word w of the
+     *             assignments.  Every column must have the same length
+     * @return A mask in the same layout as a column, with a bit set for
+     *         every assignment that satisfies the clauses
+     */
+    public long[] isSatisfied(long[][] cols) {
+        int words = cols.length > 0 ? cols[0].length : 0;
+        long[] res = new long[words];
+        long[] clauseTrue = new long[words];
+        Arrays.fill(res, -1L);
+        boolean anyLeft = words > 0;
+        ClauseIterator it = clauseIterator();
+        while (anyLeft && it.next()) {
+            Arrays.fill(clauseTrue, 0L);
+            for (int k = 0; k < it.size(); k++) {
+                int lit = it.lit(k);
+                long[] col = cols[lit>>1];
+                if ((lit&1) == 0) {
+                    for (int w = 0; w < words; w++) {
+                        clauseTrue[w] |= col[w];
+                    }
+                }
+                else {
+                    for (int w = 0; w < words; w++) {
+                        clauseTrue[w] |= ~col[w];
+                    }
+                }
+            }
+            long left = 0;
+            for (int w = 0; w < words; w++) {
+                res[w] &= clauseTrue[w];
+                left |= res[w];
+            }
+            anyLeft = left != 0;
+        }
+        return res;
+    }
+
+    /**
+     * Pack assignments into the columns used by isSatisfied(long[][]).
+     * Bits for assignments past the end of the array are left as 0
+     * 
+     * @param assignments An array of assignments, each with N values
+     * @param N Number of variables
+     * @return Columns with one bit for each assignment
+     */
+    public static long[][] packAssignments(boolean[][] assignments, int N) {
+        int words = (assignments.length + 63)/64;
+        long[][] cols = new long[N][words];
+        for (int a = 0; a < assignments.length; a++) {
+            for (int i = 0; i < N; i++) {
+                if (assignments[a][i]) {
+                    cols[i][a>>6] |= 1L << (a&63);
+                }
+            }
+        }
+        return cols;
+    }
     
 
     /**
@@ -187,13 +435,35 @@ class CNF {
         return res;
     }
 
+    /**
+     * Try every possible assignment, checking 64 at a time on several
+     * threads (see BruteForceSolver)
+     * @return The assignment of literals that satisfies the clauses,
+     *         or null if they are not satisfiable
+     */
+    public boolean[] solveBrute() {
+        return solveBrute(new SolverOptions());
+    }
+
+    /**
+     * Try every possible assignment, checking 64 at a time on several
+     * threads (see BruteForceSolver)
+     * @param options Settings for the number of threads
+     * @return The assignment of literals that satisfies the clauses,
+     *         or null if they are not satisfiable
+     */
+    public boolean[] solveBrute(SolverOptions options) {
+        return new BruteForceSolver(this, options).solve();
+    }
+
     /**
      * Try every possible assignment and return true
      * Use a memory efficient in-place version of depth-first search
      * @return The assignment of literals that satisfies the clauses,
      *         or null if they are not satisfiable
      */
-    public boolean[] solveBrute() {
+    public boolean[] solveBruteRecursive() {
+        PhaseEvents.Recorder event = PhaseEvents.SOLVE.begin();
         boolean[] vals = new boolean[N];
         for (int i = 0; i < N; i++) {
             vals[i] = false;
@@ -201,6 +471,7 @@ class CNF {
         if (!solveBruteRec(vals, 0)) {
             vals = null;
         }
+        event.finish("solveBruteRecursive", N, vals != null, false, 0, 0);
         return vals;
     }
 
@@ -215,19 +486,66 @@ class CNF {
         public DPLLState() {
             satisfiable = true; // Yet to be proven unsatisfiable
         }
+        public boolean isSatisfiable() {
+            return satisfiable;
+        }
         public String toString() {
-            String s = getClausesString(clauses) + "\n";
+            StringBuilder s = new StringBuilder();
+            try {
+                render(s, Integer.MAX_VALUE);
+            }
+            catch (IOException e) {
+                // A StringBuilder never throws this
+            }
+            return s.toString();
+        }
+        /**
+         * Write out the state a piece at a time
+         * @param out Where to write it
+         * @param maxClauses Most clauses to write
+         * @throws IOException If out can't be written
+         */
+        public void render(Appendable out, int maxClauses) throws IOException {
+            renderClauses(clauses, out, maxClauses);
+            out.append("\n");
             for (int i: model.keySet()) {
-                s += "x" + i + "=" + model.get(i) + ", ";
+                out.append("x" + i + "=" + model.get(i) + ", ");
             }
-            s += "\nLiteralsLeft: ";
+            out.append("\nLiteralsLeft: ");
             for (int i = 0; i < literals.size(); i++) {
-                s += literals.get(i) + ",";
+                out.append(literals.get(i) + ",");
             }
-            return s;
         }
     }
 
+    /**
+     * Lets the recursive DPLL algorithm hand both options of a branch off
+     * to be searched at once (see ParallelDPLL)
+     */
+    interface Splitter {
+        /**
+         * @return Whether the subtree being searched is no longer needed
+         */
+        boolean isStopped();
+
+        /**
+         * @param depth Number of branches taken so far
+         * @param numVars Number of variables left to assign
+         * @return Whether to search both options of a branch at once
+         */
+        boolean shouldSplit(int depth, int numVars);
+
+        /**
+         * Search both options of a branch
+         * @param tryFalse Configuration where the branch variable is false
+         * @param tryTrue Configuration where the branch variable is true
+         * @param depth Number of branches taken, including this one
+         * @return The solution for false if it is satisfiable,
+         *         otherwise the solution for true
+         */
+        DPLLState split(DPLLState tryFalse, DPLLState tryTrue, int depth);
+    }
+
     /**
      * Recursively apply the DPLL algorithm to find an assignment of literals 
      * making this true
@@ -235,6 +553,19 @@ class CNF {
      * @return A solution to the input configuration
      */
     public DPLLState DPLL(DPLLState state) {
+        return DPLL(state, 0, null);
+    }
+
+    /**
+     * Recursively apply the DPLL algorithm, possibly trying both options
+     * of a branch at once
+     * @param state Input current configuration of the problem
+     * @param depth Number of branches taken to get to this configuration
+     * @param task Where to hand off branches to search in parallel, or
+     *             null to search sequentially
+     * @return A solution to the input configuration
+     */
+    DPLLState DPLL(DPLLState state, int depth, Splitter task) {
         boolean anyFalse = false;
         int numTrueClauses = 0;
         int i = 0;
@@ -285,8 +616,16 @@ class CNF {
         }
         DPLLState ret = state;
         if (anyFalse) {
-            // If a single clause is false in model, return false
-            state.satisfiable = false;
+            // If a single clause is false in model, return false.  This
+            // has to be a new state, since the caller may still use this
+            // one to try the other option of its branch
+            ret = new DPLLState();
+            ret.satisfiable = false;
+        }
+        else if (task != null && task.isStopped()) {
+            // A branch to the left already found a model, so this doesn't matter
+            ret = new DPLLState();
+            ret.satisfiable = false;
         }
         else if (numTrueClauses != state.clauses.size() && state.literals.size() > 0) {
             // If not all of the clauses have been shown to be true yet, 
@@ -353,19 +692,31 @@ class CNF {
                 i++;
             }
             if (numPure > 0 || foundUnit) {
-                ret = DPLL(ret);
+                ret = DPLL(ret, depth, task);
+            }
+            else if (task != null && task.shouldSplit(depth, ret.literals.size())) {
+                // Try both options of the first unused literal at once,
+                // with its own copy of the state for true
+                int idx = ret.literals.remove(0);
+                DPLLState tryTrue = new DPLLState();
+                tryTrue.clauses = ret.clauses;
+                tryTrue.literals = new ArrayList<Integer>(ret.literals);
+                tryTrue.model = new HashMap<Integer, Boolean>(ret.model);
+                tryTrue.model.put(idx, true);
+                ret.model.put(idx, false);
+                ret = task.split(ret, tryTrue, depth+1);
             }
             else {
                 // Pick the first unused literal (at index 0) and try both options
                 int idx = ret.literals.remove(0);
                 ret.model.put(idx, false);
-                DPLLState tryFalse = DPLL(ret);
+                DPLLState tryFalse = DPLL(ret, depth+1, task);
                 if (tryFalse.satisfiable) {
                     ret = tryFalse;
                 }
                 else {
                     ret.model.put(idx, true);
-                    ret = DPLL(ret);
+                    ret = DPLL(ret, depth+1, task);
                 }
             }
         }
@@ -374,21 +725,250 @@ class CNF {
 
     /**
      * Use the DPLL algorithm to find an assignment of values to literals
-     * that makes the expression true
+     * that makes the expression true.  This version works on the clauses
+     * in place with a trail of assignments (see DPLLSolver), rather than
+     * copying the state at every step, and branches on the lowest
+     * unassigned literal
      * 
      * @return The assignment of literals that satisfies the clauses,
      *         or null if they are not satisfiable
      */
     public boolean[] solveDPLL() {
+        SolverOptions options = new SolverOptions();
+        options.heuristic = SolverOptions.Heuristic.LOWEST_INDEX;
+        return solveDPLL(options);
+    }
+
+    /**
+     * Run a solver on this expression, or if options.preprocess is set,
+     * on the simplified expression from the Preprocessor, in which case
+     * the model is extended back to every variable of this one
+     * 
+     * @param options Settings for the preprocessor
+     * @param solver Solves an expression, returning its model or null
+     * @return The assignment of literals that satisfies the clauses,
+     *         or null if the solver didn't find one
+     */
+    private boolean[] solvePreprocessed(SolverOptions options, Function<CNF, boolean[]> solver) {
         boolean[] res = null;
+        if (options.preprocess) {
+            Preprocessor p = new Preprocessor(this, options);
+            CNF simplified = p.run();
+            if (!p.unsat) {
+                res = solver.apply(simplified);
+                if (res != null) {
+                    res = p.extendModel(res);
+                }
+            }
+        }
+        else {
+            res = solver.apply(this);
+        }
+        return res;
+    }
+
+    /**
+     * Use the DPLL algorithm to find an assignment of values to literals
+     * that makes the expression true
+     * 
+     * @param options Settings for the solver, such as the branching heuristic
+     *                and whether to preprocess the clauses first
+     * @return The assignment of literals that satisfies the clauses,
+     *         or null if they are not satisfiable
+     */
+    public boolean[] solveDPLL(SolverOptions options) {
+        return solvePreprocessed(options, cnf -> new DPLLSolver(cnf, options).solve());
+    }
+
+    /**
+     * Use the DPLL algorithm to find an assignment of values to literals
+     * that makes the expression true, and if there is none, write a DRAT
+     * proof of that which DratChecker can verify against this expression.
+     * options.preprocess is ignored, since the preprocessor doesn't log
+     * its steps
+     * 
+     * @param options Settings for the solver, such as the branching heuristic
+     * @param proof Where to write the proof
+     * @return The assignment of literals that satisfies the clauses,
+     *         or null if they are not satisfiable
+     */
+    public boolean[] solveDPLL(SolverOptions options, DratWriter proof) {
+        DPLLSolver solver = new DPLLSolver(this, options);
+        solver.setProof(proof);
+        return solver.solve();
+    }
+
+    /**
+     * Run several differently configured CDCL solvers in parallel, sharing
+     * learned clauses (see PortfolioSolver), and use the first answer
+     * 
+     * @param options Settings that every solver starts from, including the
+     *                number of threads and whether to preprocess first
+     * @return The assignment of literals that satisfies the clauses,
+     *         or null if they are not satisfiable
+     */
+    public boolean[] solvePortfolio(SolverOptions options) {
+        return solvePreprocessed(options, cnf -> new PortfolioSolver(cnf, options).solve());
+    }
+
+    /**
+     * Split the problem into cubes with a lookahead solver, and then solve
+     * the cubes in parallel with CDCL (see CubeAndConquer)
+     * 
+     * @param options Settings for the cube depth, the number of threads, the
+     *                solver used on each cube, and whether to preprocess first
+     * @return The assignment of literals that satisfies the clauses,
+     *         or null if they are not satisfiable
+     */
+    public boolean[] solveCubeAndConquer(SolverOptions options) {
+        return solveCubeAndConquer(options, null);
+    }
+
+    /**
+     * Split the problem into cubes with a lookahead solver, and then solve
+     * the cubes in parallel with CDCL (see CubeAndConquer), and write a
+     * summary of how it went, followed by a line for each cube with its
+     * literals, what happened to it, and how long it took.  If the clauses
+     * are preprocessed, the cubes are in the variables of the simplified
+     * expression
+     * 
+     * @param options Settings for the cube depth, the number of threads, the
+     *                solver used on each cube, and whether to preprocess first
+     * @param report Where to write the report, or null for no report
+     * @return The assignment of literals that satisfies the clauses,
+     *         or null if they are not satisfiable
+     */
+    public boolean[] solveCubeAndConquer(SolverOptions options, Appendable report) {
+        CubeAndConquer[] cc = new CubeAndConquer[1]; // Stays null if preprocessing finds a conflict
+        boolean[] res = solvePreprocessed(options, cnf -> {
+            cc[0] = new CubeAndConquer(cnf, options);
+            return cc[0].solve();
+        });
+        if (report != null) {
+            try {
+                if (cc[0] == null) {
+                    report.append("Unsatisfiable after preprocessing, so there are no cubes\n");
+                }
+                else {
+                    report.append(cc[0].toString() + "\n");
+                    report.append(cc[0].getCubeReport());
+                }
+            }
+            catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+        return res;
+    }
+
+    /**
+     * Use conflict-driven clause learning (see CDCLSolver) to find an 
+     * assignment of values to literals that makes the expression true,
+     * with the default settings
+     * 
+     * @return The assignment of literals that satisfies the clauses,
+     *         or null if they are not satisfiable
+     */
+    public boolean[] solveCDCL() {
+        return solveCDCL(new SolverOptions());
+    }
+
+    /**
+     * Use conflict-driven clause learning (see CDCLSolver) to find an 
+     * assignment of values to literals that makes the expression true
+     * 
+     * @param options Settings for the solver, such as the branching heuristic
+     *                and whether to preprocess the clauses first
+     * @return The assignment of literals that satisfies the clauses,
+     *         or null if they are not satisfiable
+     */
+    public boolean[] solveCDCL(SolverOptions options) {
+        return solvePreprocessed(options, cnf -> new CDCLSolver(cnf, options).solve());
+    }
+
+    /**
+     * Use conflict-driven clause learning (see CDCLSolver) to find an 
+     * assignment of values to literals that makes the expression true,
+     * and if there is none, write a DRAT proof of that which DratChecker
+     * can verify against this expression.  options.preprocess is ignored,
+     * since the preprocessor doesn't log its steps
+     * 
+     * @param options Settings for the solver, such as the branching heuristic
+     * @param proof Where to write the proof
+     * @return The assignment of literals that satisfies the clauses,
+     *         or null if they are not satisfiable
+     */
+    public boolean[] solveCDCL(SolverOptions options, DratWriter proof) {
+        CDCLSolver solver = new CDCLSolver(this, options);
+        solver.setProof(proof);
+        return solver.solve();
+    }
+
+    /**
+     * Use stochastic local search (see LocalSearch) to look for an
+     * assignment of values to literals that makes the expression true.
+     * Unlike the other solvers, this can't tell that there is no such
+     * assignment, so it gives up after options.maxFlips flips
+     * 
+     * @param options Settings for the algorithm, the flip budget, the random
+     *                seed, and whether to preprocess the clauses first
+     * @return The assignment of literals that satisfies the clauses,
+     *         or null if none was found
+     */
+    public boolean[] solveLocalSearch(SolverOptions options) {
+        return solvePreprocessed(options, cnf -> new LocalSearch(cnf, options).solve());
+    }
+
+    /**
+     * Use the recursive DPLL algorithm above, which copies a DPLLState
+     * at every step, to find an assignment of values to literals
+     * that makes the expression true
+     * 
+     * @return The assignment of literals that satisfies the clauses,
+     *         or null if they are not satisfiable
+     */
+    public boolean[] solveDPLLRecursive() {
+        PhaseEvents.Recorder event = PhaseEvents.SOLVE.begin();
+        boolean[] res = getDPLLModel(DPLL(getDPLLStart()));
+        event.finish("solveDPLLRecursive", N, res != null, false, 0, 0);
+        return res;
+    }
+
+    /**
+     * Use the recursive DPLL algorithm above, but search both options of
+     * the first few branches in parallel on a ForkJoinPool (see ParallelDPLL).
+     * The answer is exactly the same as solveDPLLRecursive()
+     * 
+     * @param options Settings for the number of threads and how deep to split
+     * @return The assignment of literals that satisfies the clauses,
+     *         or null if they are not satisfiable
+     */
+    public boolean[] solveDPLLParallel(SolverOptions options) {
+        return getDPLLModel(new ParallelDPLL(this, options).solve(getDPLLStart()));
+    }
+
+    /**
+     * @return The configuration that the recursive DPLL algorithm starts from
+     */
+    DPLLState getDPLLStart() {
         DPLLState state = new DPLLState();
-        state.clauses = clauses;
+        state.clauses = getClauseList(); // DPLL never changes it
         state.literals = new ArrayList<Integer>();
         for (int i = 0; i < N; i++) {
             state.literals.add(i);
         }
         state.model = new HashMap<Integer, Boolean>();
-        DPLLState ret = DPLL(state);
+        return state;
+    }
+
+    /**
+     * Turn the result of the recursive DPLL algorithm into an assignment
+     * @param ret Result of DPLL
+     * @return The assignment of literals that satisfies the clauses,
+     *         or null if they are not satisfiable
+     */
+    boolean[] getDPLLModel(DPLLState ret) {
+        boolean[] res = null;
         if (ret.satisfiable) {
             res = new boolean[N];
             for (int i = 0; i < N; i++) {
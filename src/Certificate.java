@@ -22,6 +22,22 @@ public class Certificate {
         return false;
     }
 
+    /**
+     * Check this certificate with satisfiesProblem(), and record it as a
+     * Java Flight Recorder event (see PhaseEvents).  Call this rather than
+     * satisfiesProblem(), which is what subclasses override
+     * @param prob An NP complete problem definition
+     * @return True if this certificate satisfies the problem, and false otherwise
+     */
+    public boolean verify(NPCompleteProblem prob) {
+        PhaseEvents.Recorder event = PhaseEvents.VERIFY.begin();
+        boolean satisfied = satisfiesProblem(prob);
+        if (event.end()) {
+            event.commit(prob.getClass().getSimpleName(), satisfied);
+        }
+        return satisfied;
+    }
+
     /**
      * For debugging
      */
@@ -0,0 +1,142 @@
+/**
+ * Storage for the clauses a solver works with.  Clauses live back to back
+ * in a single int array, each one preceded by a small header, and a clause
+ * is referred to by the index of its header in that array.  Deleted
+ * clauses stay where they are until the arena is compacted.
+ * Literals are encoded as 2*var for xvar and 2*var+1 for ¬xvar
+ */
+class ClauseArena {
+    static final int HEADER = 4; // Header size: [number of literals, flags, LBD, activity]
+    static final int LEARNT = 1; // Flag for learned clauses
+    static final int DELETED = 2; // Flag for clauses that have been removed
+    static final int USED = 4; // Flag for learned clauses used in a conflict recently
+    static final int TIER_SHIFT = 3; // Flags are shifted this much to get the tier
+
+    int[] data;
+    int size;
+    int wasted; // Number of ints taken up by deleted clauses
+
+    public ClauseArena() {
+        data = new int[1024];
+        size = 0;
+        wasted = 0;
+    }
+
+    /**
+     * Copy a clause into the arena
+     * @param lits Literals of the clause
+     * @param learnt Whether this is a learned clause
+     * @return Reference to the new clause
+     */
+    public int alloc(IntVec lits, boolean learnt) {
+        int need = size + HEADER + lits.size;
+        if (need > data.length) {
+            int[] bigger = new int[Math.max(need, data.length*2)];
+            System.arraycopy(data, 0, bigger, 0, size);
+            data = bigger;
+        }
+        int cr = size;
+        data[cr] = lits.size;
+        data[cr+1] = learnt ? LEARNT : 0;
+        data[cr+2] = 0;
+        data[cr+3] = 0;
+        System.arraycopy(lits.data, 0, data, cr+HEADER, lits.size);
+        size = need;
+        return cr;
+    }
+
+    /**
+     * Return the number of literals in a clause
+     * @param cr Clause reference
+     * @return Number of literals
+     */
+    public int size(int cr) {
+        return data[cr];
+    }
+
+    /**
+     * Return the kth literal of a clause
+     * @param cr Clause reference
+     * @param k Index of the literal in the clause
+     * @return Literal
+     */
+    public int lit(int cr, int k) {
+        return data[cr+HEADER+k];
+    }
+
+    public boolean isLearnt(int cr) {
+        return (data[cr+1] & LEARNT) != 0;
+    }
+
+    public boolean isDeleted(int cr) {
+        return (data[cr+1] & DELETED) != 0;
+    }
+
+    /**
+     * Mark a clause as deleted.  Its space is reclaimed by compact()
+     * @param cr Clause reference
+     */
+    public void free(int cr) {
+        data[cr+1] |= DELETED;
+        wasted += HEADER + data[cr];
+    }
+
+    public boolean isUsed(int cr) {
+        return (data[cr+1] & USED) != 0;
+    }
+
+    public void setUsed(int cr, boolean used) {
+        if (used) {
+            data[cr+1] |= USED;
+        }
+        else {
+            data[cr+1] &= ~USED;
+        }
+    }
+
+    public int tier(int cr) {
+        return data[cr+1] >>> TIER_SHIFT;
+    }
+
+    public void setTier(int cr, int tier) {
+        data[cr+1] = (data[cr+1] & ((1 << TIER_SHIFT)-1)) | (tier << TIER_SHIFT);
+    }
+
+    public int lbd(int cr) {
+        return data[cr+2];
+    }
+
+    public void setLbd(int cr, int lbd) {
+        data[cr+2] = lbd;
+    }
+
+    public float activity(int cr) {
+        return Float.intBitsToFloat(data[cr+3]);
+    }
+
+    public void setActivity(int cr, float act) {
+        data[cr+3] = Float.floatToRawIntBits(act);
+    }
+
+    /**
+     * Slide the live clauses down over the space taken up by deleted ones.
+     *
+     * @param live References to every clause that is still live, in
+     *             increasing order.  Each one is overwritten with the
+     *             clause's new reference, so the references stay sorted
+     */
+    public void compact(IntVec live) {
+        int pos = 0;
+        for (int i = 0; i < live.size; i++) {
+            int cr = live.data[i];
+            int len = HEADER + data[cr];
+            if (cr != pos) {
+                System.arraycopy(data, cr, data, pos, len);
+            }
+            live.data[i] = pos;
+            pos += len;
+        }
+        size = pos;
+        wasted = 0;
+    }
+}
@@ -0,0 +1,58 @@
+import java.util.ArrayList;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * A place for solvers running in parallel to share the clauses they learn.
+ * Each solver has its own inbox, which is a lock-free queue, and a clause
+ * published by one solver is put in every other solver's inbox.  Since
+ * every shared clause is implied by the original formula, a solver can
+ * add it whenever it's convenient
+ */
+class ClauseExchange {
+    private ArrayList<ConcurrentLinkedQueue<int[]>> inboxes;
+
+    /**
+     * @param numSolvers Number of solvers that will share clauses
+     */
+    public ClauseExchange(int numSolvers) {
+        inboxes = new ArrayList<ConcurrentLinkedQueue<int[]>>();
+        for (int i = 0; i < numSolvers; i++) {
+            inboxes.add(new ConcurrentLinkedQueue<int[]>());
+        }
+    }
+
+    /**
+     * Share a clause with every other solver
+     * @param from Index of the solver that learned it
+     * @param lits Literals of the clause
+     * @param lbd LBD of the clause
+     */
+    public void publish(int from, IntVec lits, int lbd) {
+        int[] shared = new int[lits.size+1];
+        shared[0] = lbd;
+        System.arraycopy(lits.data, 0, shared, 1, lits.size);
+        for (int i = 0; i < inboxes.size(); i++) {
+            if (i != from) {
+                inboxes.get(i).offer(shared);
+            }
+        }
+    }
+
+    /**
+     * @param to Index of the solver
+     * @return Whether there is nothing in the solver's inbox right now
+     */
+    public boolean isEmpty(int to) {
+        return inboxes.get(to).isEmpty();
+    }
+
+    /**
+     * Take the next clause out of a solver's inbox
+     * @param to Index of the solver
+     * @return An array whose first element is the LBD and whose remaining
+     *         elements are the literals, or null if the inbox is empty
+     */
+    public int[] poll(int to) {
+        return inboxes.get(to).poll();
+    }
+}
@@ -0,0 +1,33 @@
+/**
+ * A cursor over the clauses of a CNF, which looks at one clause at a time
+ * without making an array for each clause.  Use it like this:
+ *
+ *     ClauseIterator it = cnf.clauseIterator();
+ *     while (it.next()) {
+ *         for (int k = 0; k < it.size(); k++) {
+ *             int lit = it.lit(k);
+ *             ...
+ *         }
+ *     }
+ *
+ * Literals are encoded as 2*var for xvar and 2*var+1 for ¬xvar
+ */
+interface ClauseIterator {
+    /**
+     * Move on to the next clause
+     * @return False if there are no more clauses
+     */
+    public boolean next();
+
+    /**
+     * @return Number of literals in the current clause
+     */
+    public int size();
+
+    /**
+     * Return the kth literal of the current clause
+     * @param k Index of the literal in the clause
+     * @return Literal
+     */
+    public int lit(int k);
+}
@@ -0,0 +1,17 @@
+/**
+ * Something that clauses can be sent to as a reduction makes them, so
+ * that a reduction doesn't have to build a whole CNF in memory before
+ * anything can use it.  A CNF is one, but so are sinks that only count
+ * clauses, write them to a file (DimacsClauseSink, BinaryClauseSink), or
+ * give them to a solver (SolverClauseSink)
+ */
+interface ClauseSink {
+    /**
+     * Add a clause
+     * 
+     * @param index An array of indices of the literals that are involved
+     * @param pos True if the literal itself shows up, false if its
+     *            complement shows up
+     */
+    public void addClause(int[] index, boolean[] pos);
+}
@@ -0,0 +1,28 @@
+/**
+ * Where a CNF keeps its clauses.  Clauses can only be added to the end and
+ * visited in order with a ClauseIterator, which lets an implementation
+ * pack them tightly.
+ * Literals are encoded as 2*var for xvar and 2*var+1 for ¬xvar
+ */
+interface ClauseStore {
+    /**
+     * Add a clause to the end
+     * @param lits Literals of the clause
+     */
+    public void add(IntVec lits);
+
+    /**
+     * @return Number of clauses
+     */
+    public int size();
+
+    /**
+     * @return A cursor that starts before the first clause
+     */
+    public ClauseIterator iterator();
+
+    /**
+     * Free the memory used by the clauses.  The store can't be used afterwards
+     */
+    public void close();
+}
@@ -0,0 +1,20 @@
+/**
+ * A ClauseSink that only keeps track of how big the CNF would be
+ */
+class CountingClauseSink implements ClauseSink {
+    long numClauses; // Number of clauses
+    long numLiterals; // Total number of literals in all of the clauses
+    int N; // Number of variables
+
+    public void addClause(int[] index, boolean[] pos) {
+        numClauses++;
+        numLiterals += index.length;
+        for (int i = 0; i < index.length; i++) {
+            N = Math.max(N, index[i]+1);
+        }
+    }
+
+    public String toString() {
+        return N + " variables, " + numClauses + " clauses, " + numLiterals + " literals";
+    }
+}
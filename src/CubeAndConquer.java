@@ -0,0 +1,329 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Splits a problem into many smaller ones and solves them in parallel.
+ *
+ * First, a lookahead "cuber" builds a shallow search tree.  At each node,
+ * it tries both values of a few promising variables, propagates each one,
+ * and branches on the variable that forces the most assignments on both
+ * sides.  A value that leads to a conflict is ruled out right away, and
+ * the leaves of the tree at depth cubeDepth become "cubes": sets of
+ * literals that together cover every assignment that hasn't been ruled out.
+ *
+ * Then the cubes are split among threads in a ForkJoinPool, which steals
+ * work from busy threads.  Each thread keeps one IncrementalSolver and
+ * solves every cube it gets by assuming the cube's literals, so the
+ * clauses are only loaded once per thread, and what the solver learns
+ * on one cube helps with the next.  As soon as one cube turns out to be
+ * satisfiable, the others are stopped.
+ *
+ * Literals are encoded internally as 2*var for xvar and 2*var+1 for ¬xvar
+ */
+class CubeAndConquer {
+    static final byte UNKNOWN = 0; // Cube hasn't been solved
+    static final byte SAT = 1;
+    static final byte UNSAT = 2;
+    static final byte SKIPPED = 3; // Cube was stopped because another cube was satisfiable
+
+    private CNF cnf;
+    private SolverOptions options;
+
+    // Cubing
+    private ClauseArena arena;
+    private WatchIndex watches;
+    private Trail trail;
+    private int[] occurrences; // Number of clauses each variable is in
+    private ArrayList<int[]> cubeList;
+
+    // Conquering
+    private AtomicBoolean stop; // Set once any cube is satisfiable
+    private ThreadLocal<IncrementalSolver> solvers; // Each thread's solver
+
+    // Results
+    int[][] cubes; // Literals in each cube
+    byte[] status; // What happened to each cube
+    long[] cubeTimes; // Time spent solving each cube, in nanoseconds
+    long cubeMs, conquerMs; // Time taken by each phase
+
+    /**
+     * @param cnf The expression to solve
+     * @param options Settings for the cube depth, the number of threads,
+     *                and the solver used on each cube
+     */
+    public CubeAndConquer(CNF cnf, SolverOptions options) {
+        this.cnf = cnf;
+        this.options = options;
+    }
+
+    /**
+     * Split the problem into cubes and solve them
+     * @return The assignment of literals that satisfies the clauses,
+     *         or null if they are not satisfiable
+     */
+    public boolean[] solve() {
+        long start = System.currentTimeMillis();
+        makeCubes();
+        cubeMs = System.currentTimeMillis() - start;
+        start = System.currentTimeMillis();
+        status = new byte[cubes.length];
+        cubeTimes = new long[cubes.length];
+        stop = new AtomicBoolean(false);
+        solvers = new ThreadLocal<IncrementalSolver>() {
+            protected IncrementalSolver initialValue() {
+                IncrementalSolver solver = new IncrementalSolver(cnf, options);
+                solver.setStop(stop);
+                return solver;
+            }
+        };
+        AtomicReference<boolean[]> model = new AtomicReference<boolean[]>();
+        if (cubes.length > 0) {
+            ForkJoinPool pool = new ForkJoinPool(Math.max(1, options.threads));
+            try {
+                pool.invoke(new ConquerTask(0, cubes.length, model));
+            }
+            finally {
+                pool.shutdown();
+            }
+        }
+        solvers = null; // Let the solvers go along with the threads
+        conquerMs = System.currentTimeMillis() - start;
+        return model.get();
+    }
+
+    /**
+     * Build the lookahead tree and fill in the cubes.  If every branch of
+     * the tree leads to a conflict, there are no cubes at all
+     */
+    private void makeCubes() {
+        int N = cnf.N;
+        arena = new ClauseArena();
+        watches = new WatchIndex(arena, N);
+        trail = new Trail(N);
+        cubeList = new ArrayList<int[]>();
+        occurrences = new int[N];
+        ClauseIterator it = cnf.clauseIterator();
+        while (it.next()) {
+            for (int k = 0; k < it.size(); k++) {
+                occurrences[it.lit(k)>>1]++;
+            }
+        }
+        if (watches.load(cnf, trail) && watches.propagate(trail) == Trail.NO_REASON) {
+            cube(new IntVec(), 0);
+        }
+        cubes = cubeList.toArray(new int[cubeList.size()][]);
+        // The cuber's memory isn't needed anymore
+        arena = null;
+        watches = null;
+        trail = null;
+    }
+
+    /**
+     * Assign a literal at a new decision level and propagate it
+     * @param lit Literal to assign
+     * @return False if there was a conflict
+     */
+    private boolean assume(int lit) {
+        trail.newDecisionLevel();
+        trail.enqueue(lit, Trail.NO_REASON);
+        return watches.propagate(trail) == Trail.NO_REASON;
+    }
+
+    /**
+     * Pick the unassigned variables that are in the most clauses
+     * @return Up to lookaheadCandidates variables
+     */
+    private IntVec candidates() {
+        IntVec vars = new IntVec();
+        for (int v = 0; v < cnf.N; v++) {
+            if (trail.value[v] == Trail.UNASSIGNED) {
+                vars.push(v);
+            }
+        }
+        if (vars.size > options.lookaheadCandidates) {
+            // Sort by decreasing number of occurrences
+            long[] keys = new long[vars.size];
+            for (int i = 0; i < vars.size; i++) {
+                int v = vars.data[i];
+                keys[i] = ((long)-occurrences[v] << 32) | v;
+            }
+            Arrays.sort(keys);
+            vars.clear();
+            for (int i = 0; i < options.lookaheadCandidates; i++) {
+                vars.push((int)keys[i]);
+            }
+        }
+        return vars;
+    }
+
+    /**
+     * Keep splitting the current node of the lookahead tree until we get
+     * to the cube depth
+     * @param path Literals assigned on the way to this node, which become
+     *             the cube at a leaf
+     * @param depth Number of branches taken so far
+     */
+    private void cube(IntVec path, int depth) {
+        int lev = trail.decisionLevel();
+        int pathSize = path.size;
+        boolean refuted = false;
+        int best = -1;
+        boolean again = true;
+        while (again && !refuted && depth < options.cubeDepth) {
+            // Look ahead on both values of each candidate
+            again = false;
+            best = -1;
+            long bestScore = -1;
+            IntVec vars = candidates();
+            for (int i = 0; i < vars.size && !again && !refuted; i++) {
+                int v = vars.data[i];
+                int before = trail.size;
+                boolean posOk = assume(2*v);
+                long pos = trail.size - before;
+                trail.cancelUntil(trail.decisionLevel()-1);
+                boolean negOk = assume(2*v+1);
+                long neg = trail.size - before;
+                trail.cancelUntil(trail.decisionLevel()-1);
+                if (!posOk && !negOk) {
+                    refuted = true;
+                }
+                else if (!posOk || !negOk) {
+                    // A failed literal, so the other value is forced
+                    int forced = posOk ? 2*v : 2*v+1;
+                    path.push(forced);
+                    refuted = !assume(forced);
+                    again = true;
+                }
+                else if ((pos+1)*(neg+1) > bestScore) {
+                    bestScore = (pos+1)*(neg+1);
+                    best = v;
+                }
+            }
+        }
+        if (!refuted) {
+            if (best == -1) {
+                // Either we're deep enough or every variable is assigned
+                cubeList.add(path.toArray());
+            }
+            else {
+                for (int lit = 2*best; lit <= 2*best+1; lit++) {
+                    path.push(lit);
+                    if (assume(lit)) {
+                        cube(path, depth+1);
+                    }
+                    trail.cancelUntil(trail.decisionLevel()-1);
+                    path.pop();
+                }
+            }
+        }
+        trail.cancelUntil(lev);
+        path.shrink(pathSize);
+    }
+
+    /**
+     * Solve one cube with this thread's solver, assuming its literals
+     * @param i Index of the cube
+     * @param model Where to put the model of the first satisfiable cube
+     */
+    private void conquer(int i, AtomicReference<boolean[]> model) {
+        long start = System.nanoTime();
+        if (stop.get()) {
+            status[i] = SKIPPED;
+        }
+        else {
+            IncrementalSolver solver = solvers.get();
+            int[] assumptions = new int[cubes[i].length];
+            for (int k = 0; k < cubes[i].length; k++) {
+                assumptions[k] = CNF.fromLit(cubes[i][k]);
+            }
+            boolean[] res = solver.solve(assumptions);
+            if (solver.wasStopped()) {
+                status[i] = SKIPPED;
+            }
+            else if (res != null) {
+                status[i] = SAT;
+                model.compareAndSet(null, res);
+                stop.set(true);
+            }
+            else {
+                status[i] = UNSAT;
+            }
+        }
+        cubeTimes[i] = System.nanoTime() - start;
+    }
+
+    /**
+     * Solves a range of cubes by splitting it in half until only one
+     * cube is left
+     */
+    private class ConquerTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private int lo, hi; // Range of cubes [lo, hi)
+        private AtomicReference<boolean[]> model;
+
+        public ConquerTask(int lo, int hi, AtomicReference<boolean[]> model) {
+            this.lo = lo;
+            this.hi = hi;
+            this.model = model;
+        }
+
+        protected void compute() {
+            if (hi - lo == 1) {
+                conquer(lo, model);
+            }
+            else {
+                int mid = (lo + hi)/2;
+                invokeAll(new ConquerTask(lo, mid, model), new ConquerTask(mid, hi, model));
+            }
+        }
+    }
+
+    /**
+     * @return One line for each cube with its literals (in the 1-indexed
+     *         format of the CNF class), what happened to it, and how long
+     *         it took
+     */
+    public String getCubeReport() {
+        StringBuilder s = new StringBuilder();
+        for (int i = 0; i < cubes.length; i++) {
+            s.append("cube " + i + " (");
+            for (int k = 0; k < cubes[i].length; k++) {
+                s.append(CNF.fromLit(cubes[i][k]));
+                if (k < cubes[i].length-1) {
+                    s.append(" ");
+                }
+            }
+            String[] names = {"unknown", "sat", "unsat", "skipped"};
+            s.append("): " + names[status[i]] + " in " + String.format("%.3f", cubeTimes[i]/1e6) + "ms\n");
+        }
+        return s.toString();
+    }
+
+    /**
+     * @return A summary of the cubes and how long they took
+     */
+    public String toString() {
+        int[] counts = new int[4];
+        long[] times = new long[cubes.length];
+        int numTimes = 0;
+        for (int i = 0; i < cubes.length; i++) {
+            counts[status[i]]++;
+            if (status[i] == SAT || status[i] == UNSAT) {
+                times[numTimes++] = cubeTimes[i];
+            }
+        }
+        String s = cubes.length + " cubes in " + cubeMs + "ms, conquered in " + conquerMs + "ms";
+        s += " (" + counts[SAT] + " sat, " + counts[UNSAT] + " unsat, " + counts[SKIPPED] + " skipped)";
+        if (numTimes > 0) {
+            Arrays.sort(times, 0, numTimes);
+            s += ", cube time min/median/max ";
+            s += String.format("%.3f/%.3f/%.3fms", times[0]/1e6, times[numTimes/2]/1e6, times[numTimes-1]/1e6);
+        }
+        return s;
+    }
+}
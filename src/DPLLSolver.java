@@ -0,0 +1,223 @@
+import java.io.IOException;
+import java.io.UncheckedIOException;
+
+/**
+ * An in-place implementation of the DPLL search in CNF.DPLL: propagate
+ * unit clauses, then branch on an unassigned literal (by default the one
+ * with the lowest index), trying false first, and backtrack
+ * chronologically.  Instead of copying the
+ * clauses and the model at every call, the clauses are stored once, and
+ * every assignment is pushed onto a trail so that it can be undone when
+ * we backtrack.  Unit clauses are found with a WatchIndex, so
+ * propagation only looks at clauses watching a literal that just
+ * became false.  Watches don't keep track of which clauses are
+ * satisfied, so unlike CNF.DPLL, pure literals are only assigned once,
+ * at level 0 before the search starts.
+ *
+ * If a DratWriter is given, the solver logs a proof as it goes.  Whenever
+ * it gives up on a decision, every option under it has failed, so the
+ * clause saying that the current decisions can't all be true follows by
+ * unit propagation from the clauses logged for its two options, which
+ * can then be deleted.
+ *
+ * If options.stats is on, progress is reported to SolverStats every
+ * STATS_INTERVAL decisions, so a long search can be watched over JMX.
+ *
+ * Literals are encoded internally as 2*var for xvar and 2*var+1 for ¬xvar
+ */
+class DPLLSolver {
+    private static final int STATS_INTERVAL = 1024; // Decisions between reports to SolverStats (a power of 2)
+
+    private int N; // Number of variables
+    private ClauseArena arena;
+    private WatchIndex watches;
+    private Trail trail;
+    private boolean[] flipped; // Whether the decision at each level has already tried its second option
+    private BranchHeuristic heuristic; // How to choose decision variables
+    private boolean unsat; // Whether an empty clause was found at level 0
+    private DratWriter proof; // Where to log a proof of unsatisfiability, or null
+    private IntVec proofLits; // Working memory for the lemmas in the proof
+    private int pendingChild; // Flipped decision whose two lemmas can be deleted, or -1
+    private SolverStats.Tracker stats; // Where to report progress, or null
+    private long decisions, conflicts; // Statistics
+
+    /**
+     * Build a solver over a snapshot of the clauses of a CNF.  The CNF
+     * itself is never modified
+     * @param cnf The expression to solve
+     * @param options Settings for this solver
+     */
+    public DPLLSolver(CNF cnf, SolverOptions options) {
+        N = cnf.N;
+        heuristic = options.makeHeuristic(N);
+        arena = new ClauseArena();
+        watches = new WatchIndex(arena, N);
+        trail = new Trail(N);
+        flipped = new boolean[N+1];
+        unsat = !watches.load(cnf, trail);
+        proofLits = new IntVec();
+        pendingChild = -1;
+        if (options.stats) {
+            stats = new SolverStats.Tracker(SolverStats.get());
+        }
+    }
+
+    /**
+     * Log a DRAT proof whenever the clauses turn out to be unsatisfiable.
+     * The proof is for the clauses the solver was built with
+     * @param proof Where to write the proof
+     */
+    public void setProof(DratWriter proof) {
+        this.proof = proof;
+    }
+
+    /**
+     * Log the lemma that the decisions up to the current level can't all
+     * be true, and delete the lemmas for the two options of the level
+     * above it, which it replaces
+     */
+    private void logFailedLevel() {
+        proofLits.clear();
+        for (int lev = 1; lev <= trail.decisionLevel(); lev++) {
+            proofLits.push(trail.lits[trail.levelStart(lev)]^1);
+        }
+        proof.add(proofLits);
+        if (pendingChild != -1) {
+            proofLits.push(pendingChild);
+            proof.delete(proofLits);
+            proofLits.data[proofLits.size-1] ^= 1;
+            proof.delete(proofLits);
+            pendingChild = -1;
+        }
+    }
+
+    /**
+     * Undo all assignments above a given decision level
+     * @param lev Decision level to go back to
+     */
+    private void cancelUntil(int lev) {
+        if (trail.decisionLevel() > lev) {
+            for (int i = trail.size-1; i >= trail.levelStart(lev+1); i--) {
+                heuristic.onUnassign(trail.lits[i]>>1);
+            }
+            trail.cancelUntil(lev);
+        }
+    }
+
+    /**
+     * Propagate unit clauses, and if a clause becomes false, let the
+     * heuristic know which variables were involved
+     * @return False if a clause has become false
+     */
+    private boolean propagate() {
+        int confl = watches.propagate(trail);
+        if (confl != Trail.NO_REASON) {
+            conflicts++;
+            for (int k = 0; k < arena.size(confl); k++) {
+                heuristic.bump(arena.lit(confl, k)>>1);
+            }
+            heuristic.onConflict();
+        }
+        return confl == Trail.NO_REASON;
+    }
+
+    /**
+     * Undo decisions until we find one whose other option hasn't been
+     * tried, and then try that option
+     * @return False if there are no options left, meaning the clauses
+     *         are unsatisfiable
+     */
+    private boolean backtrack() {
+        boolean ok = false;
+        while (!ok && trail.decisionLevel() > 0) {
+            int lev = trail.decisionLevel();
+            int decision = trail.lits[trail.levelStart(lev)];
+            if (proof != null) {
+                logFailedLevel();
+                if (flipped[lev]) {
+                    pendingChild = decision;
+                }
+            }
+            cancelUntil(lev-1);
+            if (!flipped[lev]) {
+                trail.newDecisionLevel();
+                flipped[lev] = true;
+                trail.enqueue(decision^1, Trail.NO_REASON);
+                ok = propagate();
+            }
+        }
+        return ok;
+    }
+
+    /**
+     * Run the search
+     * @return The assignment of literals that satisfies the clauses,
+     *         or null if they are not satisfiable
+     */
+    public boolean[] solve() {
+        PhaseEvents.Recorder event = PhaseEvents.SOLVE.begin();
+        if (stats != null) {
+            stats.start();
+        }
+        boolean ok = !unsat && propagate();
+        if (ok) {
+            // A pure literal is never worth trying false, so set it for good
+            IntVec pure = new IntVec();
+            watches.assignPureLiterals(trail, pure);
+            if (proof != null) {
+                // Each one is a RAT lemma, since every clause with its
+                // complement is already satisfied at level 0
+                for (int i = 0; i < pure.size; i++) {
+                    proofLits.clear();
+                    proofLits.push(pure.data[i]);
+                    proof.add(proofLits);
+                }
+            }
+        }
+        boolean done = !ok;
+        while (!done) {
+            int v = heuristic.pickBranchVar(trail);
+            if (v == -1) {
+                done = true;
+            }
+            else {
+                decisions++;
+                if (stats != null && (decisions & (STATS_INTERVAL-1)) == 0) {
+                    stats.update(decisions, watches.propagations, conflicts, 0, 0, trail.decisionLevel());
+                }
+                trail.newDecisionLevel();
+                flipped[trail.decisionLevel()] = false;
+                trail.enqueue(2*v+1, Trail.NO_REASON); // Try false first
+                if (!propagate()) {
+                    ok = backtrack();
+                    done = !ok;
+                }
+            }
+        }
+        if (stats != null) {
+            stats.update(decisions, watches.propagations, conflicts, 0, 0, trail.decisionLevel());
+            stats.finish();
+        }
+        event.finish(getClass().getSimpleName(), N, ok, false, decisions, conflicts);
+        if (proof != null) {
+            if (!ok) {
+                proofLits.clear();
+                proof.add(proofLits);
+            }
+            try {
+                proof.flush();
+            }
+            catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+        boolean[] res = null;
+        if (ok) {
+            res = new boolean[N];
+            for (int i = 0; i < N; i++) {
+                res[i] = trail.value[i] == Trail.TRUE;
+            }
+        }
+        return res;
+    }
+}
@@ -0,0 +1,311 @@
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Reading and writing CNF expressions in the DIMACS format that most SAT
+ * tools use.  A file looks like this:
+ *
+ *     c A comment
+ *     p cnf 3 2
+ *     1 -3 0
+ *     2 3 -1 0
+ *
+ * where the header gives the number of variables and clauses, and each
+ * clause is a list of signed 1-indexed literals ending with 0.
+ *
+ * Both directions work on bytes directly rather than making a String
+ * for each number.  Files whose names end in ".gz" are compressed with gzip.
+ * Uncompressed files are read by memory mapping them
+ */
+class Dimacs {
+    private static final int BUFFER_SIZE = 1 << 16;
+    private static final long MAP_SIZE = 1L << 30; // Most bytes to map at once
+
+    /**
+     * Write an expression to a file
+     * @param cnf Expression to write
+     * @param file Where to write it.  It is compressed if the name ends in ".gz"
+     * @throws IOException If the file can't be written
+     */
+    public static void write(CNF cnf, Path file) throws IOException {
+        write(cnf, file, file.toString().endsWith(".gz"));
+    }
+
+    /**
+     * Write an expression to a file
+     * @param cnf Expression to write
+     * @param file Where to write it
+     * @param gzip Whether to compress it
+     * @throws IOException If the file can't be written
+     */
+    public static void write(CNF cnf, Path file, boolean gzip) throws IOException {
+        FileChannel fc = FileChannel.open(file, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+        WritableByteChannel out = fc;
+        if (gzip) {
+            // Favor speed over size, since the default level is several times slower
+            OutputStream os = new GZIPOutputStream(Channels.newOutputStream(fc), BUFFER_SIZE) {
+                {
+                    def.setLevel(Deflater.BEST_SPEED);
+                }
+            };
+            out = Channels.newChannel(os);
+        }
+        try {
+            Writer w = new Writer(out);
+            w.writeHeader(cnf.N, cnf.getNumClauses());
+            ClauseIterator it = cnf.clauseIterator();
+            while (it.next()) {
+                for (int k = 0; k < it.size(); k++) {
+                    w.writeInt(CNF.fromLit(it.lit(k)));
+                    w.writeByte(' ');
+                }
+                w.writeByte('0');
+                w.writeByte('\n');
+            }
+            w.flush();
+        }
+        finally {
+            out.close();
+        }
+    }
+
+    /**
+     * Writes DIMACS text into a channel through a buffer
+     */
+    static class Writer {
+        private WritableByteChannel out;
+        private ByteBuffer buf;
+        private byte[] digits;
+
+        public Writer(WritableByteChannel out) {
+            this.out = out;
+            buf = ByteBuffer.allocate(BUFFER_SIZE);
+            digits = new byte[11];
+        }
+
+        public void writeHeader(int N, long numClauses) throws IOException {
+            byte[] p = {'p', ' ', 'c', 'n', 'f', ' '};
+            for (byte b: p) {
+                writeByte(b);
+            }
+            writeInt(N);
+            writeByte(' ');
+            writeLong(numClauses);
+            writeByte('\n');
+        }
+
+        public void writeByte(int b) throws IOException {
+            if (!buf.hasRemaining()) {
+                flushBuffer();
+            }
+            buf.put((byte)b);
+        }
+
+        public void writeInt(int x) throws IOException {
+            writeLong(x);
+        }
+
+        public void writeLong(long x) throws IOException {
+            if (x < 0) {
+                writeByte('-');
+                x = -x;
+            }
+            int n = 0;
+            do {
+                digits[n++] = (byte)('0' + x%10);
+                x /= 10;
+            } while (x > 0);
+            while (n > 0) {
+                writeByte(digits[--n]);
+            }
+        }
+
+        private void flushBuffer() throws IOException {
+            buf.flip();
+            while (buf.hasRemaining()) {
+                out.write(buf);
+            }
+            buf.clear();
+        }
+
+        /**
+         * Write out everything in the buffer
+         * @throws IOException If the channel can't be written
+         */
+        public void flush() throws IOException {
+            flushBuffer();
+        }
+    }
+
+    /**
+     * Read an expression from a file
+     * @param file File to read.  It is decompressed if the name ends in ".gz"
+     * @return A new expression with the clauses in the file
+     * @throws IOException If the file can't be read or isn't valid DIMACS
+     */
+    public static CNF read(Path file) throws IOException {
+        CNF cnf = new CNF();
+        read(file, cnf);
+        return cnf;
+    }
+
+    /**
+     * Read the clauses in a file into an expression, such as one
+     * with an OffHeapClauseStore
+     * @param file File to read.  It is decompressed if the name ends in ".gz"
+     * @param cnf Expression to add the clauses to
+     * @throws IOException If the file can't be read or isn't valid DIMACS
+     */
+    public static void read(Path file, CNF cnf) throws IOException {
+        Parser p = new Parser(cnf);
+        FileChannel fc = FileChannel.open(file, StandardOpenOption.READ);
+        try {
+            if (file.toString().endsWith(".gz")) {
+                InputStream is = new GZIPInputStream(Channels.newInputStream(fc), BUFFER_SIZE);
+                ReadableByteChannel in = Channels.newChannel(is);
+                ByteBuffer buf = ByteBuffer.allocate(BUFFER_SIZE);
+                while (!p.done && in.read(buf) != -1) {
+                    buf.flip();
+                    p.parse(buf);
+                    buf.clear();
+                }
+            }
+            else {
+                long size = fc.size();
+                for (long pos = 0; pos < size && !p.done; pos += MAP_SIZE) {
+                    MappedByteBuffer buf = fc.map(FileChannel.MapMode.READ_ONLY, pos, Math.min(MAP_SIZE, size - pos));
+                    p.parse(buf);
+                }
+            }
+        }
+        finally {
+            fc.close();
+        }
+        p.finish();
+    }
+
+    /**
+     * Turns DIMACS text into clauses one byte at a time, so that the text
+     * can come in pieces and a number can be split between two pieces
+     */
+    static class Parser {
+        private CNF cnf;
+        private IntVec lits; // Literals of the clause being read
+        private boolean lineStart; // Whether we're at the start of a line
+        private boolean comment; // Whether we're skipping a comment line
+        private boolean inNumber, negative;
+        private long number;
+        private int headerNumbers; // Number of header numbers left to read, or -1 before the header
+        private int numVars;
+        boolean done; // Whether the end marker "%" was reached
+
+        public Parser(CNF cnf) {
+            this.cnf = cnf;
+            lits = new IntVec();
+            lineStart = true;
+            headerNumbers = -1;
+            numVars = 0;
+        }
+
+        /**
+         * Parse every byte left in a buffer
+         * @param buf Buffer to parse
+         * @throws IOException If the text isn't valid DIMACS
+         */
+        public void parse(ByteBuffer buf) throws IOException {
+            while (buf.hasRemaining() && !done) {
+                int b = buf.get();
+                if (comment) {
+                    if (b == '\n') {
+                        comment = false;
+                        lineStart = true;
+                    }
+                }
+                else if (b >= '0' && b <= '9') {
+                    inNumber = true;
+                    number = 10*number + (b - '0');
+                    if (number > Integer.MAX_VALUE) {
+                        throw new IOException("Number is too large");
+                    }
+                    lineStart = false;
+                }
+                else if (b == '-' && !inNumber) {
+                    negative = true;
+                    lineStart = false;
+                }
+                else {
+                    if (inNumber || negative) {
+                        endNumber();
+                    }
+                    if (b == '\n') {
+                        lineStart = true;
+                    }
+                    else if (b == 'c' && lineStart) {
+                        comment = true;
+                    }
+                    else if (b == 'p' && lineStart) {
+                        headerNumbers = 2;
+                        lineStart = false;
+                    }
+                    else if (b == '%') {
+                        done = true;
+                    }
+                    else if (b != ' ' && b != '\t' && b != '\r' && headerNumbers <= 0) {
+                        throw new IOException("Unexpected character '" + (char)b + "'");
+                    }
+                }
+            }
+        }
+
+        private void endNumber() throws IOException {
+            if (!inNumber) {
+                throw new IOException("'-' without a number");
+            }
+            int x = negative ? -(int)number : (int)number;
+            if (headerNumbers > 0) {
+                if (headerNumbers == 2) {
+                    numVars = x;
+                }
+                headerNumbers--;
+            }
+            else if (x == 0) {
+                cnf.addClause(lits);
+                lits.clear();
+            }
+            else {
+                lits.push(CNF.toLit(x));
+            }
+            inNumber = false;
+            negative = false;
+            number = 0;
+        }
+
+        /**
+         * Finish the last number and clause, if the file didn't end with them
+         * @throws IOException If the text isn't valid DIMACS
+         */
+        public void finish() throws IOException {
+            if (inNumber || negative) {
+                endNumber();
+            }
+            if (lits.size > 0) {
+                cnf.addClause(lits);
+                lits.clear();
+            }
+            cnf.N = Math.max(cnf.N, numVars);
+        }
+    }
+}
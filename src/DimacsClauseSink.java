@@ -0,0 +1,70 @@
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * A ClauseSink that writes clauses to a DIMACS file (see Dimacs) as they
+ * come in.  The number of variables and clauses aren't known until the
+ * end, so the header line is left blank and filled in by close().  The
+ * file can't be compressed, since the header has to be rewritten
+ */
+class DimacsClauseSink implements ClauseSink, AutoCloseable {
+    private static final int HEADER_SIZE = 39; // "p cnf ", 11 digits, space, 20 digits, newline
+
+    private FileChannel out;
+    private Dimacs.Writer writer;
+    private long numClauses;
+    private int N;
+
+    /**
+     * @param file Where to write the clauses
+     * @throws IOException If the file can't be opened
+     */
+    public DimacsClauseSink(Path file) throws IOException {
+        out = FileChannel.open(file, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+        writer = new Dimacs.Writer(out);
+        for (int i = 0; i < HEADER_SIZE-1; i++) {
+            writer.writeByte(' ');
+        }
+        writer.writeByte('\n');
+    }
+
+    public void addClause(int[] index, boolean[] pos) {
+        try {
+            for (int i = 0; i < index.length; i++) {
+                N = Math.max(N, index[i]+1);
+                writer.writeInt(pos[i] ? index[i]+1 : -(index[i]+1));
+                writer.writeByte(' ');
+            }
+            writer.writeByte('0');
+            writer.writeByte('\n');
+            numClauses++;
+        }
+        catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Write out the rest of the clauses and fill in the header
+     * @throws IOException If the file can't be written
+     */
+    public void close() throws IOException {
+        try {
+            writer.flush();
+            String header = String.format("p cnf %-11d %-20d", N, numClauses);
+            ByteBuffer buf = ByteBuffer.wrap(header.getBytes("US-ASCII"));
+            long at = 0;
+            while (buf.hasRemaining()) {
+                at += out.write(buf, at);
+            }
+        }
+        finally {
+            out.close();
+        }
+    }
+}
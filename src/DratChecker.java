@@ -0,0 +1,686 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Checks a binary DRAT proof (see DratWriter) that a CNF expression is
+ * unsatisfiable, in the style of drat-trim.
+ *
+ * First, every clause of the expression and every lemma of the proof is
+ * read into one int array, and each deletion is matched to the clause it
+ * deletes with a hash table of the clauses that are still around.  Then
+ * the proof is run forward, adding and deleting clauses and propagating
+ * units at level 0, until a clause becomes false.  Finally, the proof is
+ * run backward from there, undoing each step, and each lemma that was
+ * used to reach the conflict (its "core") is checked:
+ *   - RUP: making every literal of the lemma false and propagating units
+ *     leads to a conflict
+ *   - RAT: if not, then for every clause D containing the complement of
+ *     the first literal p of the lemma, the lemma together with D \ {¬p}
+ *     must be RUP
+ * The clauses used in each of those checks are added to the core, so
+ * lemmas that never help are never checked.  Like drat-trim, deletions
+ * of clauses that are the reason for a level 0 assignment are ignored.
+ *
+ * The whole formula and the whole proof are kept in memory.  The
+ * backward pass may need any lemma again, and only keeping everything
+ * makes that cheap.  That takes one int per literal plus a header of
+ * HEADER ints per clause, and one int per proof step, so a proof that is
+ * a few times longer than a million-clause formula fits in a few hundred
+ * MB.  Memory is not bounded, though: it keeps growing with the length of
+ * the proof, and a proof too big for the heap fails with an
+ * OutOfMemoryError rather than being checked in pieces.
+ * Literals are encoded as 2*var for xvar and 2*var+1 for ¬xvar
+ */
+class DratChecker {
+    private static final int HEADER = 4; // Header of a clause: [number of literals, flags, next clause in its hash bucket, first literal]
+    private static final int ACTIVE = 1; // Flag for clauses that are in the formula at the current step
+    private static final int CORE = 2; // Flag for clauses used to derive the conflict
+    private static final int SKIPPED = Integer.MIN_VALUE; // Step for a deletion that is ignored
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    private IntVec store; // Every clause, back to back, each preceded by a header
+    private int numOriginal; // Offset in the store just past the original clauses
+    private IntVec steps; // Reference to each added lemma, or ~reference to each deleted clause
+    private int[] buckets; // Hash table of the clauses that haven't been deleted yet
+    private int numHashed;
+    private int N; // Number of variables in the expression and the proof
+    private int[] mark; // For removing repeated literals and matching deletions
+    private int markStamp;
+
+    // Reading the proof
+    private ReadableByteChannel in;
+    private ByteBuffer buf;
+
+    // Unit propagation
+    private Trail trail;
+    private IntVec[] watches; // Clauses watching each literal
+    private IntVec units; // Clauses in the formula with one literal, which aren't watched
+    private byte[] seen; // For finding the core of a conflict
+    private IntVec lits; // Working memory
+
+    int numLemmas, numDeletions, numCore, numRAT; // Statistics
+    int numIgnoredDeletions, numMissingDeletions;
+    int failedStep = -1; // Step of the proof that couldn't be verified, or -1
+
+    /**
+     * @param cnf Expression that the proof is about.  Its clauses are
+     *            copied, so it can be closed once this returns
+     */
+    public DratChecker(CNF cnf) {
+        store = new IntVec(1024);
+        steps = new IntVec();
+        buckets = new int[1024];
+        for (int b = 0; b < buckets.length; b++) {
+            buckets[b] = -1;
+        }
+        N = cnf.N;
+        mark = new int[2*N];
+        lits = new IntVec();
+        ClauseIterator it = cnf.clauseIterator();
+        while (it.next()) {
+            lits.clear();
+            for (int k = 0; k < it.size(); k++) {
+                lits.push(it.lit(k));
+            }
+            addClause(lits);
+        }
+        numOriginal = store.size;
+    }
+
+    /**
+     * Check a proof in a file
+     * @param file File with the proof
+     * @return True if the proof shows that the expression is unsatisfiable
+     * @throws IOException If the file can't be read or isn't binary DRAT
+     */
+    public boolean check(Path file) throws IOException {
+        FileChannel ch = FileChannel.open(file, StandardOpenOption.READ);
+        try {
+            return check(ch);
+        }
+        finally {
+            ch.close();
+        }
+    }
+
+    /**
+     * Check a proof.  A checker can only be used for one proof
+     * @param proof Channel to read the proof from
+     * @return True if the proof shows that the expression is unsatisfiable
+     * @throws IOException If the proof can't be read or isn't binary DRAT
+     */
+    public boolean check(ReadableByteChannel proof) throws IOException {
+        readProof(proof);
+        buckets = null; // Only needed for matching deletions
+        trail = new Trail(N);
+        watches = new IntVec[2*N];
+        for (int l = 0; l < 2*N; l++) {
+            watches[l] = new IntVec();
+        }
+        units = new IntVec();
+        seen = new byte[N];
+
+        // Run the proof forward until there's a conflict
+        int confl = Trail.NO_REASON;
+        for (int cr = 0; cr < numOriginal && confl == Trail.NO_REASON; cr += HEADER + store.data[cr]) {
+            confl = attach(cr);
+        }
+        if (confl == Trail.NO_REASON) {
+            confl = propagate();
+        }
+        int i = 0;
+        while (i < steps.size && confl == Trail.NO_REASON) {
+            int s = steps.data[i];
+            if (s >= 0) {
+                confl = attach(s);
+                if (confl == Trail.NO_REASON) {
+                    confl = propagate();
+                }
+            }
+            else if (s != SKIPPED) {
+                if (isReason(~s)) {
+                    steps.data[i] = SKIPPED;
+                    numIgnoredDeletions++;
+                }
+                else {
+                    detach(~s);
+                }
+            }
+            i++;
+        }
+        boolean ok = confl != Trail.NO_REASON;
+        if (!ok) {
+            failedStep = steps.size; // The proof never reaches a conflict
+        }
+        else {
+            markCore(confl, -1);
+        }
+
+        // Go back through the steps that led to the conflict, checking
+        // every lemma in the core
+        for (i = i-1; i >= 0 && ok; i--) {
+            int s = steps.data[i];
+            if (s >= 0) {
+                removeLemma(s);
+                if ((store.data[s+1] & CORE) != 0) {
+                    numCore++;
+                    ok = verify(s);
+                    if (!ok) {
+                        failedStep = i;
+                    }
+                }
+            }
+            else if (s != SKIPPED) {
+                attach(~s);
+                propagate();
+            }
+        }
+        return ok;
+    }
+
+    /**
+     * Read every step of the proof into the store, and find the clause
+     * that each deletion refers to
+     * @param proof Channel to read the proof from
+     * @throws IOException If the proof can't be read or isn't binary DRAT
+     */
+    private void readProof(ReadableByteChannel proof) throws IOException {
+        in = proof;
+        buf = ByteBuffer.allocate(BUFFER_SIZE);
+        buf.flip();
+        int type = readByte();
+        while (type != -1) {
+            if (type != DratWriter.ADD && type != DratWriter.DELETE) {
+                throw new IOException("Not a binary DRAT proof: step " + steps.size + " starts with byte " + type);
+            }
+            lits.clear();
+            int x = readVarint();
+            while (x != 0) {
+                if (x == 1) {
+                    throw new IOException("Bad literal in step " + steps.size + " of the proof");
+                }
+                lits.push(x - 2);
+                x = readVarint();
+            }
+            if (type == DratWriter.ADD) {
+                numLemmas++;
+                steps.push(addClause(lits));
+            }
+            else {
+                numDeletions++;
+                int cr = removeFromTable(lits);
+                if (cr == -1) {
+                    numMissingDeletions++;
+                    steps.push(SKIPPED);
+                }
+                else {
+                    steps.push(~cr);
+                }
+            }
+            type = readByte();
+        }
+        in = null;
+        buf = null;
+    }
+
+    /**
+     * @return The next byte of the proof, or -1 at the end
+     */
+    private int readByte() throws IOException {
+        int b = -1;
+        if (!buf.hasRemaining()) {
+            buf.clear();
+            int n = in.read(buf);
+            while (n == 0) {
+                n = in.read(buf);
+            }
+            buf.flip();
+        }
+        if (buf.hasRemaining()) {
+            b = buf.get() & 0xFF;
+        }
+        return b;
+    }
+
+    private int readVarint() throws IOException {
+        int x = 0;
+        int shift = 0;
+        int b;
+        do {
+            b = readByte();
+            if (b == -1) {
+                throw new IOException("The proof ends in the middle of a step");
+            }
+            x |= (b & 0x7F) << shift;
+            shift += 7;
+        } while ((b & 0x80) != 0);
+        return x;
+    }
+
+    /**
+     * Put a clause in the store and the hash table, without its
+     * repeated literals
+     * @param lits Literals of the clause (this will be modified)
+     * @return Reference to the new clause
+     */
+    private int addClause(IntVec lits) {
+        markStamp++;
+        int j = 0;
+        for (int i = 0; i < lits.size; i++) {
+            int lit = lits.data[i];
+            if ((lit>>1) >= N) {
+                N = (lit>>1) + 1;
+                int[] bigger = new int[Math.max(2*N, 2*mark.length)];
+                System.arraycopy(mark, 0, bigger, 0, mark.length);
+                mark = bigger;
+            }
+            if (mark[lit] != markStamp) {
+                mark[lit] = markStamp;
+                lits.data[j++] = lit;
+            }
+        }
+        lits.shrink(j);
+        int cr = store.size;
+        store.push(lits.size);
+        store.push(0);
+        store.push(-1);
+        store.push(lits.size > 0 ? lits.data[0] : -1);
+        for (int i = 0; i < lits.size; i++) {
+            store.push(lits.data[i]);
+        }
+        if (numHashed >= buckets.length) {
+            rehash();
+        }
+        int b = hash(store.data, cr+HEADER, lits.size) & (buckets.length-1);
+        store.data[cr+2] = buckets[b];
+        buckets[b] = cr;
+        numHashed++;
+        return cr;
+    }
+
+    /**
+     * A hash of the literals of a clause that doesn't depend on their order
+     */
+    private static int hash(int[] a, int start, int n) {
+        int h = n;
+        for (int k = start; k < start+n; k++) {
+            int x = a[k]*0x9E3779B9;
+            h += x ^ (x >>> 15);
+        }
+        return h ^ (h >>> 16);
+    }
+
+    /**
+     * Double the size of the hash table
+     */
+    private void rehash() {
+        int[] old = buckets;
+        buckets = new int[2*old.length];
+        for (int b = 0; b < buckets.length; b++) {
+            buckets[b] = -1;
+        }
+        int[] a = store.data;
+        for (int b = 0; b < old.length; b++) {
+            int cr = old[b];
+            while (cr != -1) {
+                int next = a[cr+2];
+                int nb = hash(a, cr+HEADER, a[cr]) & (buckets.length-1);
+                a[cr+2] = buckets[nb];
+                buckets[nb] = cr;
+                cr = next;
+            }
+        }
+    }
+
+    /**
+     * Find a clause with the same literals as a deletion and take it out
+     * of the hash table
+     * @param lits Literals of the deletion (this will be modified)
+     * @return Reference to the clause, or -1 if there is none
+     */
+    private int removeFromTable(IntVec lits) {
+        // Remove repeated literals and mark the rest
+        markStamp++;
+        int j = 0;
+        boolean known = true; // A variable that's never been seen can't be in any clause
+        for (int i = 0; i < lits.size && known; i++) {
+            int lit = lits.data[i];
+            known = (lit>>1) < N;
+            if (known && mark[lit] != markStamp) {
+                mark[lit] = markStamp;
+                lits.data[j++] = lit;
+            }
+        }
+        lits.shrink(j);
+        int[] a = store.data;
+        int b = hash(lits.data, 0, lits.size) & (buckets.length-1);
+        int prev = -1;
+        int cr = known ? buckets[b] : -1;
+        boolean found = false;
+        while (cr != -1 && !found) {
+            found = a[cr] == lits.size;
+            for (int k = 0; k < a[cr] && found; k++) {
+                found = mark[a[cr+HEADER+k]] == markStamp;
+            }
+            if (!found) {
+                prev = cr;
+                cr = a[cr+2];
+            }
+        }
+        if (found) {
+            if (prev == -1) {
+                buckets[b] = a[cr+2];
+            }
+            else {
+                a[prev+2] = a[cr+2];
+            }
+            numHashed--;
+        }
+        return cr;
+    }
+
+    /**
+     * Make a clause part of the formula at level 0, watching two of its
+     * literals that aren't false if there are any
+     * @param cr Clause reference
+     * @return The clause if it is false, or NO_REASON
+     */
+    private int attach(int cr) {
+        int[] a = store.data;
+        a[cr+1] |= ACTIVE;
+        int n = a[cr];
+        int c0 = cr + HEADER;
+        int confl = Trail.NO_REASON;
+        if (n == 0) {
+            confl = cr;
+        }
+        else if (n == 1) {
+            units.push(cr);
+            byte v = trail.litValue(a[c0]);
+            if (v == Trail.FALSE) {
+                confl = cr;
+            }
+            else if (v == Trail.UNASSIGNED) {
+                trail.enqueue(a[c0], cr);
+            }
+        }
+        else {
+            int j = 0;
+            for (int k = 0; k < n && j < 2; k++) {
+                if (trail.litValue(a[c0+k]) != Trail.FALSE) {
+                    int tmp = a[c0+j];
+                    a[c0+j] = a[c0+k];
+                    a[c0+k] = tmp;
+                    j++;
+                }
+            }
+            watches[a[c0]].push(cr);
+            watches[a[c0+1]].push(cr);
+            if (j == 0) {
+                confl = cr;
+            }
+            else if (j == 1 && trail.litValue(a[c0]) == Trail.UNASSIGNED) {
+                trail.enqueue(a[c0], cr);
+            }
+        }
+        return confl;
+    }
+
+    /**
+     * Take a clause out of the formula
+     * @param cr Clause reference
+     */
+    private void detach(int cr) {
+        int[] a = store.data;
+        a[cr+1] &= ~ACTIVE;
+        if (a[cr] == 1) {
+            remove(units, cr);
+        }
+        else if (a[cr] >= 2) {
+            remove(watches[a[cr+HEADER]], cr);
+            remove(watches[a[cr+HEADER+1]], cr);
+        }
+    }
+
+    private static void remove(IntVec v, int x) {
+        int i = 0;
+        while (v.data[i] != x) {
+            i++;
+        }
+        v.data[i] = v.data[v.size-1];
+        v.size--;
+    }
+
+    /**
+     * @param cr Clause reference
+     * @return Whether the clause is the reason for a level 0 assignment
+     */
+    private boolean isReason(int cr) {
+        int[] a = store.data;
+        boolean reason = false;
+        if (a[cr] > 0) {
+            int first = a[cr+HEADER];
+            reason = trail.litValue(first) == Trail.TRUE && trail.reason[first>>1] == cr;
+        }
+        return reason;
+    }
+
+    /**
+     * Take a lemma out of the formula while going backward.  If it is
+     * the reason for a level 0 assignment, that assignment and everything
+     * after it are undone and propagated again without the lemma
+     * @param cr Clause reference
+     */
+    private void removeLemma(int cr) {
+        boolean reason = isReason(cr);
+        detach(cr);
+        if (reason) {
+            int first = store.data[cr+HEADER];
+            int pos = trail.size-1;
+            while (trail.lits[pos] != first) {
+                pos--;
+            }
+            for (int i = trail.size-1; i >= pos; i--) {
+                int v = trail.lits[i]>>1;
+                trail.value[v] = Trail.UNASSIGNED;
+                trail.reason[v] = Trail.NO_REASON;
+            }
+            trail.size = pos;
+            // A clause might have become unit because of an assignment
+            // before pos, so everything has to be propagated again
+            trail.qhead = 0;
+            int[] a = store.data;
+            for (int i = 0; i < units.size; i++) {
+                int u = units.data[i];
+                if (trail.litValue(a[u+HEADER]) == Trail.UNASSIGNED) {
+                    trail.enqueue(a[u+HEADER], u);
+                }
+            }
+            propagate();
+        }
+    }
+
+    /**
+     * Propagate all of the assignments on the trail that haven't been
+     * propagated yet, like WatchIndex.propagate
+     * @return A clause that has become false, or NO_REASON if there is none
+     */
+    private int propagate() {
+        int[] a = store.data;
+        int confl = Trail.NO_REASON;
+        while (trail.qhead < trail.size && confl == Trail.NO_REASON) {
+            int falseLit = trail.lits[trail.qhead++]^1;
+            IntVec ws = watches[falseLit];
+            int[] w = ws.data;
+            int i = 0, j = 0;
+            int n = ws.size;
+            while (i < n) {
+                int cr = w[i++];
+                int c0 = cr + HEADER;
+                // Make sure the false literal is in the second spot
+                if (a[c0] == falseLit) {
+                    a[c0] = a[c0+1];
+                    a[c0+1] = falseLit;
+                }
+                int first = a[c0];
+                if (trail.litValue(first) == Trail.TRUE) {
+                    w[j++] = cr;
+                    continue;
+                }
+                // Look for a new literal to watch
+                int end = c0 + a[cr];
+                boolean found = false;
+                for (int k = c0+2; k < end && !found; k++) {
+                    if (trail.litValue(a[k]) != Trail.FALSE) {
+                        a[c0+1] = a[k];
+                        a[k] = falseLit;
+                        watches[a[c0+1]].push(cr);
+                        found = true;
+                    }
+                }
+                if (!found) {
+                    w[j++] = cr;
+                    if (trail.litValue(first) == Trail.FALSE) {
+                        confl = cr;
+                        trail.qhead = trail.size;
+                        while (i < n) {
+                            w[j++] = w[i++];
+                        }
+                    }
+                    else {
+                        trail.enqueue(first, cr);
+                    }
+                }
+            }
+            ws.shrink(j);
+        }
+        return confl;
+    }
+
+    /**
+     * Add every clause that a conflict (or an assignment) depends on to
+     * the core, by walking back along the trail from it
+     * @param confl Clause that is false, or NO_REASON
+     * @param var Variable whose assignment to explain, or -1
+     */
+    private void markCore(int confl, int var) {
+        int[] a = store.data;
+        if (confl != Trail.NO_REASON) {
+            a[confl+1] |= CORE;
+            for (int k = 0; k < a[confl]; k++) {
+                seen[a[confl+HEADER+k]>>1] = 1;
+            }
+        }
+        if (var != -1) {
+            seen[var] = 1;
+        }
+        for (int i = trail.size-1; i >= 0; i--) {
+            int v = trail.lits[i]>>1;
+            if (seen[v] == 1) {
+                seen[v] = 0;
+                int cr = trail.reason[v];
+                if (cr != Trail.NO_REASON) {
+                    a[cr+1] |= CORE;
+                    for (int k = 0; k < a[cr]; k++) {
+                        int u = a[cr+HEADER+k]>>1;
+                        if (u != v) {
+                            seen[u] = 1;
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Check whether making every literal of a clause false leads to a
+     * conflict by unit propagation, and if so, add what the conflict
+     * depends on to the core
+     * @param lits Literals of the clause
+     * @return True if it does
+     */
+    private boolean rup(IntVec lits) {
+        trail.newDecisionLevel();
+        int trueVar = -1;
+        for (int i = 0; i < lits.size && trueVar == -1; i++) {
+            int lit = lits.data[i];
+            byte v = trail.litValue(lit);
+            if (v == Trail.TRUE) {
+                trueVar = lit>>1;
+            }
+            else if (v == Trail.UNASSIGNED) {
+                trail.enqueue(lit^1, Trail.NO_REASON);
+            }
+        }
+        boolean ok = true;
+        if (trueVar != -1) {
+            markCore(Trail.NO_REASON, trueVar);
+        }
+        else {
+            int confl = propagate();
+            if (confl != Trail.NO_REASON) {
+                markCore(confl, -1);
+            }
+            else {
+                ok = false;
+            }
+        }
+        trail.cancelUntil(0);
+        return ok;
+    }
+
+    /**
+     * Check that a lemma is RUP or RAT with respect to the clauses that
+     * are in the formula now
+     * @param cr Clause reference of the lemma
+     * @return True if it is
+     */
+    private boolean verify(int cr) {
+        int[] a = store.data;
+        int n = a[cr];
+        lits.clear();
+        for (int k = 0; k < n; k++) {
+            lits.push(a[cr+HEADER+k]);
+        }
+        boolean ok = rup(lits);
+        if (!ok && n > 0) {
+            int notPivot = a[cr+3]^1;
+            ok = true;
+            for (int d = 0; d < store.size && ok; d += HEADER + a[d]) {
+                if ((a[d+1] & ACTIVE) != 0) {
+                    boolean contains = false;
+                    for (int k = 0; k < a[d] && !contains; k++) {
+                        contains = a[d+HEADER+k] == notPivot;
+                    }
+                    if (contains) {
+                        lits.shrink(n);
+                        for (int k = 0; k < a[d]; k++) {
+                            if (a[d+HEADER+k] != notPivot) {
+                                lits.push(a[d+HEADER+k]);
+                            }
+                        }
+                        ok = rup(lits);
+                        if (ok) {
+                            a[d+1] |= CORE;
+                        }
+                    }
+                }
+            }
+            if (ok) {
+                numRAT++;
+            }
+        }
+        return ok;
+    }
+
+    public String toString() {
+        return "Lemmas: " + numLemmas + ", Deletions: " + numDeletions +
+               ", Core lemmas checked: " + numCore + ", RAT lemmas: " + numRAT +
+               ", Ignored deletions: " + numIgnoredDeletions +
+               ", Unmatched deletions: " + numMissingDeletions;
+    }
+}
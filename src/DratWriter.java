@@ -0,0 +1,132 @@
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Writes a proof that a CNF expression is unsatisfiable in the binary DRAT
+ * format, as the solver derives it.  A proof is a list of steps that each
+ * add a clause (a "lemma") or delete one, ending with the empty clause.
+ * Every lemma has to follow from the clauses before it by unit
+ * propagation, which DratChecker can verify against the original clauses.
+ *
+ * Each step is the byte 'a' (add) or 'd' (delete), then the literals of
+ * the clause, each one written as the varint 2*(var+1) for xvar and
+ * 2*(var+1)+1 for ¬xvar, and then a 0.  Like in BinaryCNF, a varint
+ * is 7 bits per byte, with the high bit set on every byte but the last.
+ * Steps are collected in a buffer and written to the channel in big
+ * chunks, so logging costs little more than encoding the literals
+ */
+class DratWriter implements AutoCloseable {
+    static final byte ADD = 'a';
+    static final byte DELETE = 'd';
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    private WritableByteChannel out;
+    private ByteBuffer buf;
+    long additions, deletions; // Statistics
+
+    /**
+     * @param out Channel to write the proof to
+     */
+    public DratWriter(WritableByteChannel out) {
+        this.out = out;
+        buf = ByteBuffer.allocate(BUFFER_SIZE);
+    }
+
+    /**
+     * @param file Where to write the proof
+     * @throws IOException If the file can't be opened
+     */
+    public DratWriter(Path file) throws IOException {
+        this(FileChannel.open(file, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING));
+    }
+
+    /**
+     * Add a lemma to the proof
+     * @param lits Literals of the lemma
+     */
+    public void add(IntVec lits) {
+        additions++;
+        writeStep(ADD, lits.data, 0, lits.size);
+    }
+
+    /**
+     * Delete a clause that won't be used anymore
+     * @param lits Literals of the clause
+     */
+    public void delete(IntVec lits) {
+        deletions++;
+        writeStep(DELETE, lits.data, 0, lits.size);
+    }
+
+    /**
+     * Delete a clause stored in an arena that won't be used anymore
+     * @param arena Where the clause is stored
+     * @param cr Clause reference
+     */
+    public void delete(ClauseArena arena, int cr) {
+        deletions++;
+        writeStep(DELETE, arena.data, cr+ClauseArena.HEADER, arena.size(cr));
+    }
+
+    private void writeStep(byte type, int[] lits, int start, int n) {
+        try {
+            if (buf.remaining() < 1 + 5*(n+1)) {
+                flushBuffer();
+            }
+            if (buf.remaining() < 1 + 5*(n+1)) {
+                buf = ByteBuffer.allocate(1 + 5*(n+1)); // A clause too big for the buffer
+            }
+            buf.put(type);
+            for (int k = start; k < start+n; k++) {
+                writeVarint(lits[k] + 2);
+            }
+            buf.put((byte)0);
+        }
+        catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void writeVarint(int x) {
+        while ((x & ~0x7F) != 0) {
+            buf.put((byte)((x & 0x7F) | 0x80));
+            x >>>= 7;
+        }
+        buf.put((byte)x);
+    }
+
+    private void flushBuffer() throws IOException {
+        buf.flip();
+        while (buf.hasRemaining()) {
+            out.write(buf);
+        }
+        buf.clear();
+    }
+
+    /**
+     * Write out every step so far
+     * @throws IOException If the channel can't be written
+     */
+    public void flush() throws IOException {
+        flushBuffer();
+    }
+
+    /**
+     * Write out every step so far and close the channel
+     * @throws IOException If the channel can't be written
+     */
+    public void close() throws IOException {
+        try {
+            flushBuffer();
+        }
+        finally {
+            out.close();
+        }
+    }
+}
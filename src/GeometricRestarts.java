@@ -0,0 +1,27 @@
+/**
+ * Restart after a number of conflicts that grows geometrically:
+ * base, base*growth, base*growth^2, ...
+ */
+class GeometricRestarts implements RestartPolicy {
+    private double limit; // Conflicts allowed before the next restart
+    private double growth;
+    private long conflicts; // Conflicts since the last restart
+
+    public GeometricRestarts(int base, double growth) {
+        limit = base;
+        this.growth = growth;
+    }
+
+    public void onConflict(int lbd) {
+        conflicts++;
+    }
+
+    public boolean shouldRestart() {
+        return conflicts >= limit;
+    }
+
+    public void onRestart() {
+        limit *= growth;
+        conflicts = 0;
+    }
+}
@@ -0,0 +1,50 @@
+/**
+ * Restart dynamically the way Glucose does: keep the literal block
+ * distance (LBD) of the most recent learned clauses in a window, and
+ * restart as soon as their average is noticeably worse than the average
+ * over the whole run, since that suggests the current part of the search
+ * isn't producing useful clauses
+ */
+class GlucoseRestarts implements RestartPolicy {
+    private int[] window; // LBDs of the most recent conflicts, in a circular buffer
+    private int pos; // Where the next LBD goes in the window
+    private int count; // Number of LBDs in the window
+    private long windowSum;
+    private long totalSum; // Sum of every LBD so far
+    private long totalCount;
+    private double K; // Restart when K*(recent average) > (overall average)
+
+    /**
+     * @param windowSize Number of recent conflicts to average over
+     * @param K Margin, in (0, 1).  Larger values restart more often
+     */
+    public GlucoseRestarts(int windowSize, double K) {
+        window = new int[windowSize];
+        this.K = K;
+    }
+
+    public void onConflict(int lbd) {
+        totalSum += lbd;
+        totalCount++;
+        if (count == window.length) {
+            windowSum -= window[pos];
+        }
+        else {
+            count++;
+        }
+        window[pos] = lbd;
+        windowSum += lbd;
+        pos = (pos+1) % window.length;
+    }
+
+    public boolean shouldRestart() {
+        return count == window.length && 
+               K*windowSum/count > (double)totalSum/totalCount;
+    }
+
+    public void onRestart() {
+        count = 0;
+        pos = 0;
+        windowSum = 0;
+    }
+}
@@ -1,3 +1,4 @@
+import java.io.IOException;
 import java.util.Random;
 import java.util.ArrayList;
 import java.util.HashSet;
@@ -19,6 +20,14 @@ public class GraphProblem extends NPCompleteProblem {
         return N;
     }
 
+    /**
+     * Return the size of the problem, which is the number of vertices
+     * @return Number of vertices
+     */
+    public int getSize() {
+        return N;
+    }
+
     /**
      * Return number of edges in the graph
      * @return Number of edges
@@ -46,15 +55,38 @@ public class GraphProblem extends NPCompleteProblem {
     }
 
     public String toString() {
-        String s = "";
-        for (int i = 0; i < edges.size(); i++) {
+        StringBuilder s = new StringBuilder();
+        try {
+            render(s, Integer.MAX_VALUE);
+        }
+        catch (IOException e) {
+            // A StringBuilder never throws this
+        }
+        return s.toString();
+    }
+
+    /**
+     * Write out the edges a piece at a time, rather than building one
+     * big string
+     * @param out Where to write the edges
+     * @param maxEdges Most edges to write before writing a count of
+     *                 the ones that are left instead
+     * @throws IOException If out can't be written
+     */
+    public void render(Appendable out, int maxEdges) throws IOException {
+        int shown = Math.min(edges.size(), maxEdges);
+        for (int i = 0; i < shown; i++) {
             int[] e = edges.get(i);
-            s += "[" + e[0] + "," + e[1] + "]";
+            out.append("[").append(Integer.toString(e[0])).append(",");
+            out.append(Integer.toString(e[1])).append("]");
             if (i < edges.size() - 1) {
-                s += ", ";
+                out.append(", ");
             }
         }
-        return s;
+        if (shown < edges.size()) {
+            out.append("... (" + (edges.size() - shown) + " more edges; ");
+            out.append(N + " vertices and " + edges.size() + " edges in all)");
+        }
     }
 
     /**
@@ -2,11 +2,14 @@
  * Programmer: Chris Tralie
  * Purpose: To solve the Hamiltonian cycle problem via reductions
  */
+import java.io.IOException;
 import java.util.Random;
 import java.util.ArrayList;
 import java.util.HashSet;
 
 public class HamiltonianPath extends GraphProblem {
+    private static final int MAX_PRINTED_CLAUSES = 50; // Clauses of the CNF to print in main
+
     /**
      * Return your pseudonym for the class-wide experiments
      * @return Your pseudonym
@@ -74,9 +77,9 @@ public class HamiltonianPath extends GraphProblem {
     /**
      * Each node j must appear in the path: (x1j v x2j v ... v xNj)
      * 
-     * @param c CNF to which to add clauses
+     * @param c Sink to which to add clauses
      */
-    private void addExistenceClauses(CNF c) {
+    private void addExistenceClauses(ClauseSink c) {
         int[] index = new int[N];
         boolean[] pos = new boolean[N];
         for (int i = 0; i < N; i++) {
@@ -99,9 +102,9 @@ public class HamiltonianPath extends GraphProblem {
      * 
      * This is one place where the cubic blowup of clauses comes in
      * 
-     * @param c CNF to which to add clauses
+     * @param c Sink to which to add clauses
      */
-    private void addNodeAtMostOnceClauses(CNF c) {
+    private void addNodeAtMostOnceClauses(ClauseSink c) {
         boolean[] pos = {false, false};
         int[] index = new int[2];
         for (int i = 0; i < N; i++) {
@@ -128,9 +131,9 @@ public class HamiltonianPath extends GraphProblem {
      * 
      * This is one place where the cubic blowup of clauses comes in
      * 
-     * @param c CNF to which to add clauses
+     * @param c Sink to which to add clauses
      */
-    private void addPositionAtMostOnceClauses(CNF c) {
+    private void addPositionAtMostOnceClauses(ClauseSink c) {
         boolean[] pos = {false, false};
         int[] index = new int[2];
         for (int j = 0; j < N; j++) {
@@ -150,9 +153,9 @@ public class HamiltonianPath extends GraphProblem {
      * Every position i on the path must be occupied: 
      * xi1 V xi2 V ... V xiN for i = 1, ..., n
      * 
-     * @param c CNF to which to add clauses
+     * @param c Sink to which to add clauses
      */
-    private void addEveryPositionOccupiedClauses(CNF c) {
+    private void addEveryPositionOccupiedClauses(ClauseSink c) {
         boolean[] pos = new boolean[N];
         int[] index = new int[N];
         for (int i = 0; i < N; i++) {
@@ -173,9 +176,9 @@ public class HamiltonianPath extends GraphProblem {
      * xij -> !x_{i+1}k for i = 1, ..., n-1 and (j, k) not an edge
      * This is equivalent to (!xij or !x_{i+1}k) if (j, k) is not an edge
      * 
-     * @param c CNF to which to add clauses
+     * @param c Sink to which to add clauses
      */
-    private void addEdgeEnforcingClauses(CNF c) {
+    private void addEdgeEnforcingClauses(ClauseSink c) {
         boolean[] pos = {false, false};
         int[] index = new int[2];
         for (int i = 0; i < N-1; i++) {
@@ -203,15 +206,25 @@ public class HamiltonianPath extends GraphProblem {
      * @return CNF Clause
      */
     public CNF getCNF() {
+        CNF c = new CNF();
+        getCNF(c);
+        return c;
+    }
+
+    /**
+     * Reduce this problem to SAT, sending the clauses to a sink as
+     * they are made rather than keeping them
+     * 
+     * @param c Sink to which to add clauses
+     */
+    public void getCNF(ClauseSink c) {
         // Create a literal xij that is true if the ith vertex in the
         // Hamiltonian path is vertex j
-        CNF c = new CNF();
         addExistenceClauses(c);
         addNodeAtMostOnceClauses(c);
         addPositionAtMostOnceClauses(c);
         addEveryPositionOccupiedClauses(c);
         addEdgeEnforcingClauses(c);
-        return c;
     }
 
     /**
@@ -230,16 +243,22 @@ public class HamiltonianPath extends GraphProblem {
         int N = 20;
         h.makeRandomProblem(N, 9);
         tic = System.currentTimeMillis();
-        CNF c = h.getCNF();
+        CNF c = h.reduceToSAT();
         toc = System.currentTimeMillis();
         System.out.println("Elapsed time making CNF clauses: " + (toc-tic));
-        System.out.println(c);
+        try {
+            c.render(System.out, MAX_PRINTED_CLAUSES);
+        }
+        catch (IOException e) {
+            // System.out never throws this
+        }
+        System.out.println();
         tic = System.currentTimeMillis();
         boolean[] vals = c.solveDPLL();
         toc = System.currentTimeMillis();
         System.out.println("Elapsed time solving SAT: " + (toc-tic));
-        HamiltonianPathCert cert = new HamiltonianPathCert(vals, N);
-        System.out.println("Satisfies: " + cert.satisfiesProblem(h));
+        Certificate cert = h.decodeCertificate(vals, N);
+        System.out.println("Satisfies: " + cert.verify(h));
         h.draw();
         cert.draw();
         // Now test a bunch of other problems
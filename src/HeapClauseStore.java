@@ -0,0 +1,55 @@
+/**
+ * A ClauseStore on the Java heap, with the clauses back to back in a
+ * single growable int array instead of one small array per clause.  Each
+ * clause is its number of literals followed by the literals themselves.
+ * Literals are encoded as 2*var for xvar and 2*var+1 for ¬xvar
+ */
+class HeapClauseStore implements ClauseStore {
+    private IntVec data;
+    private int numClauses;
+
+    public HeapClauseStore() {
+        data = new IntVec(1024);
+        numClauses = 0;
+    }
+
+    public void add(IntVec lits) {
+        data.push(lits.size);
+        for (int i = 0; i < lits.size; i++) {
+            data.push(lits.data[i]);
+        }
+        numClauses++;
+    }
+
+    public int size() {
+        return numClauses;
+    }
+
+    public ClauseIterator iterator() {
+        return new ClauseIterator() {
+            private int pos = -1; // Index of the header of the current clause
+            private int next = 0; // Index of the header of the next clause
+
+            public boolean next() {
+                pos = next;
+                if (pos < data.size) {
+                    next = pos + 1 + data.data[pos];
+                }
+                return pos < data.size;
+            }
+
+            public int size() {
+                return data.data[pos];
+            }
+
+            public int lit(int k) {
+                return data.data[pos+1+k];
+            }
+        };
+    }
+
+    public void close() {
+        data = new IntVec(1);
+        numClauses = 0;
+    }
+}
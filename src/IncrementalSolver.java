@@ -0,0 +1,80 @@
+/**
+ * A CDCL solver that can be used over and over on closely related
+ * problems.  Clauses can be added between searches, and each search can
+ * assume that some literals are true without adding them for good.
+ * Learned clauses, variable activities and saved phases carry over from
+ * one search to the next, so later searches don't start from scratch.
+ * When a search is unsatisfiable because of the assumptions, the solver
+ * reports which of the assumptions were to blame.
+ *
+ * Literals are given in the CNF class's signed 1-indexed format, so
+ * 3 is x2 and -3 is ¬x2
+ */
+class IncrementalSolver extends CDCLSolver {
+    /**
+     * @param cnf Clauses to start with, which also fix the number of
+     *            variables.  The CNF itself is never modified
+     * @param options Settings for the solver
+     */
+    public IncrementalSolver(CNF cnf, SolverOptions options) {
+        super(cnf, options);
+    }
+
+    /**
+     * Add a clause to every future search
+     * @param clause Literals of the clause, in signed 1-indexed format
+     * @return False if the clauses are now known to be unsatisfiable
+     *         without any assumptions
+     */
+    public boolean addClause(int[] clause) {
+        IntVec lits = new IntVec();
+        for (int k = 0; k < clause.length; k++) {
+            lits.push(toSolverLit(clause[k]));
+        }
+        return addClause(lits);
+    }
+
+    /**
+     * Look for a model in which all of the assumptions are true
+     * @param assumptions Literals to assume, in signed 1-indexed format
+     * @return The assignment of literals that satisfies the clauses and
+     *         the assumptions, or null if there is none
+     */
+    public boolean[] solve(int[] assumptions) {
+        this.assumptions.clear();
+        for (int k = 0; k < assumptions.length; k++) {
+            this.assumptions.push(toSolverLit(assumptions[k]));
+        }
+        boolean[] res = solve();
+        this.assumptions.clear();
+        return res;
+    }
+
+    /**
+     * @return Whether the clauses are unsatisfiable even without assumptions
+     */
+    public boolean isUnsat() {
+        return unsat;
+    }
+
+    /**
+     * @return If the last search found no model, a subset of its
+     *         assumptions that can't all be true at once, in signed
+     *         1-indexed format.  This is empty if the clauses are
+     *         unsatisfiable on their own
+     */
+    public int[] getFailedAssumptions() {
+        int[] res = new int[failed.size];
+        for (int i = 0; i < failed.size; i++) {
+            res[i] = CNF.fromLit(failed.data[i]);
+        }
+        return res;
+    }
+
+    private int toSolverLit(int idx) {
+        if (idx == 0 || Math.abs(idx) > N) {
+            throw new IllegalArgumentException("Literal " + idx + " is not between 1 and " + N + " in absolute value");
+        }
+        return CNF.toLit(idx);
+    }
+}
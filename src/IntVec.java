@@ -0,0 +1,77 @@
+/**
+ * A growable array of primitive ints, so that the solvers can keep lists
+ * of literals and clause references without boxing every element
+ */
+class IntVec {
+    int[] data;
+    int size;
+
+    public IntVec() {
+        this(4);
+    }
+
+    public IntVec(int capacity) {
+        data = new int[Math.max(capacity, 1)];
+        size = 0;
+    }
+
+    /**
+     * Add an element to the end of the array, doubling the capacity
+     * if it has run out
+     * @param x Element to add
+     */
+    public void push(int x) {
+        if (size == data.length) {
+            int[] bigger = new int[data.length*2];
+            System.arraycopy(data, 0, bigger, 0, size);
+            data = bigger;
+        }
+        data[size++] = x;
+    }
+
+    /**
+     * Remove and return the last element
+     * @return The last element
+     */
+    public int pop() {
+        return data[--size];
+    }
+
+    public int last() {
+        return data[size-1];
+    }
+
+    public int get(int i) {
+        return data[i];
+    }
+
+    public void set(int i, int x) {
+        data[i] = x;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Drop every element past a given size
+     * @param newSize Number of elements to keep
+     */
+    public void shrink(int newSize) {
+        size = newSize;
+    }
+
+    public void clear() {
+        size = 0;
+    }
+
+    /**
+     * Return a copy of the elements that are currently in the array
+     * @return int array with exactly size elements
+     */
+    public int[] toArray() {
+        int[] res = new int[size];
+        System.arraycopy(data, 0, res, 0, size);
+        return res;
+    }
+}
@@ -0,0 +1,352 @@
+import java.util.Arrays;
+
+/**
+ * Keeps track of the clauses a CDCL solver has learned, and periodically
+ * throws away the ones that don't seem useful so that propagation doesn't
+ * slow down as the search goes on.
+ *
+ * Clauses are scored by their literal block distance (LBD), the number of
+ * distinct decision levels among their literals when they were learned,
+ * since clauses with a small LBD tend to keep being useful.  They are put
+ * in one of three tiers:
+ *   CORE: LBD <= coreLBD, kept forever
+ *   TIER2: LBD <= tier2LBD, kept as long as they keep being used in conflicts
+ *   LOCAL: everything else, the least active half of which is deleted
+ *          at every reduction
+ * The clauses also have to fit in a memory budget.  If they are over it
+ * even after LOCAL clauses are deleted, the least active TIER2 clauses are
+ * deleted too, and if that isn't enough, the least active CORE clauses.
+ * Activity is bumped by an amount that grows with every conflict, so these
+ * are the ones that haven't helped in the longest time.  A learned clause
+ * always follows from the original ones, so deleting one is always safe.
+ * Deleted clauses are only marked in the arena, and once enough space
+ * is wasted, the arena is compacted in place
+ */
+class LearntClauseDB {
+    static final int CORE = 0;
+    static final int TIER2 = 1;
+    static final int LOCAL = 2;
+    private static final double RESCALE_LIMIT = 1e20;
+    private static final double GARBAGE_FRACTION = 0.2; // Compact once this much of the arena is wasted
+
+    private ClauseArena arena;
+    private WatchIndex watches;
+    private Trail trail;
+    IntVec learnts; // References to the learned clauses, in increasing order
+
+    private int coreLBD, tier2LBD;
+    private long budget; // Number of ints that learned clauses are allowed to take up
+    private long learntInts; // Number of ints that learned clauses take up now
+    private double clauseInc; // Current activity bump
+    private double clauseDecay;
+    private long nextReduce; // Number of conflicts at which to reduce next
+    private long lastReduce; // Number of conflicts at the last reduction
+    private int reduceInterval, reduceIncrement;
+
+    private DratWriter proof; // Where to log deleted clauses, or null
+
+    private int[] levelStamp; // For counting distinct levels in a clause
+    private int stamp;
+
+    long reductions, deletedClauses, collections; // Statistics
+
+    /**
+     * @param arena Where the clauses are stored
+     * @param watches Index used to propagate them
+     * @param trail Assignment of the solver that owns them
+     * @param options Settings for the tiers, the reduction schedule
+     *                and the memory budget
+     */
+    public LearntClauseDB(ClauseArena arena, WatchIndex watches, Trail trail, SolverOptions options) {
+        this.arena = arena;
+        this.watches = watches;
+        this.trail = trail;
+        learnts = new IntVec();
+        coreLBD = options.coreLBD;
+        tier2LBD = options.tier2LBD;
+        budget = options.learntBudgetMB*(1024L*1024L/4);
+        clauseInc = 1;
+        clauseDecay = options.clauseDecay;
+        reduceInterval = options.reduceInterval;
+        reduceIncrement = options.reduceIncrement;
+        nextReduce = reduceInterval;
+        levelStamp = new int[trail.N+1];
+    }
+
+    /**
+     * Log every clause that gets deleted to a DRAT proof
+     * @param proof Where to write the deletions
+     */
+    public void setProof(DratWriter proof) {
+        this.proof = proof;
+    }
+
+    public int size() {
+        return learnts.size;
+    }
+
+    /**
+     * Count the number of distinct decision levels among the literals
+     * of a clause (its "literal block distance")
+     * @param lits Literals in the clause, which must all be assigned
+     * @return Number of distinct levels
+     */
+    public int computeLBD(IntVec lits) {
+        stamp++;
+        int count = 0;
+        for (int i = 0; i < lits.size; i++) {
+            int lev = trail.level[lits.data[i]>>1];
+            if (levelStamp[lev] != stamp) {
+                levelStamp[lev] = stamp;
+                count++;
+            }
+        }
+        return count;
+    }
+
+    private int computeLBD(int cr) {
+        stamp++;
+        int count = 0;
+        for (int k = 0; k < arena.size(cr); k++) {
+            int lev = trail.level[arena.lit(cr, k)>>1];
+            if (levelStamp[lev] != stamp) {
+                levelStamp[lev] = stamp;
+                count++;
+            }
+        }
+        return count;
+    }
+
+    private int tierFor(int lbd) {
+        int tier = LOCAL;
+        if (lbd <= coreLBD) {
+            tier = CORE;
+        }
+        else if (lbd <= tier2LBD) {
+            tier = TIER2;
+        }
+        return tier;
+    }
+
+    /**
+     * Store and start watching a new learned clause
+     * @param lits Literals of the clause, with the asserting literal first
+     * @param lbd LBD of the clause
+     * @return Reference to the new clause
+     */
+    public int add(IntVec lits, int lbd) {
+        int cr = arena.alloc(lits, true);
+        arena.setLbd(cr, lbd);
+        arena.setTier(cr, tierFor(lbd));
+        bumpActivity(cr);
+        learnts.push(cr);
+        watches.attach(cr);
+        learntInts += ClauseArena.HEADER + lits.size;
+        return cr;
+    }
+
+    private void bumpActivity(int cr) {
+        double act = arena.activity(cr) + clauseInc;
+        arena.setActivity(cr, (float)act);
+        if (act > RESCALE_LIMIT) {
+            for (int i = 0; i < learnts.size; i++) {
+                int c = learnts.data[i];
+                arena.setActivity(c, (float)(arena.activity(c)/RESCALE_LIMIT));
+            }
+            clauseInc /= RESCALE_LIMIT;
+        }
+    }
+
+    /**
+     * Called when a learned clause takes part in conflict analysis, which
+     * is also a good time to see if its LBD has gone down
+     * @param cr Clause reference
+     */
+    public void onUse(int cr) {
+        arena.setUsed(cr, true);
+        bumpActivity(cr);
+        if (arena.tier(cr) != CORE) {
+            int lbd = computeLBD(cr);
+            if (lbd < arena.lbd(cr)) {
+                arena.setLbd(cr, lbd);
+                arena.setTier(cr, Math.min(arena.tier(cr), tierFor(lbd)));
+            }
+        }
+    }
+
+    /**
+     * Called once after each conflict
+     */
+    public void onConflict() {
+        clauseInc /= clauseDecay;
+    }
+
+    /**
+     * @param conflicts Number of conflicts so far
+     * @return Whether it's time to reduce the database.  Going over
+     *         budget forces a reduction, but at most once per conflict,
+     *         since the clauses that are reasons for the current
+     *         assignment can't be deleted
+     */
+    public boolean shouldReduce(long conflicts) {
+        return conflicts >= nextReduce || (learntInts > budget && conflicts > lastReduce);
+    }
+
+    /**
+     * Check whether a clause is the reason for a current assignment, in
+     * which case we can't delete it
+     * @param cr Clause reference
+     * @return Whether the clause is locked
+     */
+    private boolean locked(int cr) {
+        int first = arena.lit(cr, 0);
+        return trail.reason[first>>1] == cr && trail.litValue(first) == Trail.TRUE;
+    }
+
+    /**
+     * Delete the least active half of the LOCAL clauses, and move TIER2
+     * clauses that haven't been used since the last reduction to LOCAL.
+     * If learned clauses are still over budget, keep deleting the least
+     * active LOCAL clauses, and then TIER2 and CORE clauses, until they
+     * take up at most half of it
+     * @param conflicts Number of conflicts so far
+     */
+    public void reduce(long conflicts) {
+        reductions++;
+        lastReduce = conflicts;
+        nextReduce = conflicts + reduceInterval + reduceIncrement*reductions;
+        // Sort the LOCAL candidates by activity.  Activities are positive
+        // floats, so their bits sort in the same order as their values
+        long[] keys = new long[learnts.size];
+        int numKeys = 0;
+        for (int i = 0; i < learnts.size; i++) {
+            int cr = learnts.data[i];
+            int tier = arena.tier(cr);
+            if (tier == LOCAL && !locked(cr)) {
+                keys[numKeys++] = ((long)Float.floatToRawIntBits(arena.activity(cr)) << 32) | cr;
+            }
+            else if (tier == TIER2 && !arena.isUsed(cr)) {
+                arena.setTier(cr, LOCAL);
+            }
+            arena.setUsed(cr, false);
+        }
+        Arrays.sort(keys, 0, numKeys);
+        int k = 0;
+        while (k < numKeys && (k < numKeys/2 || learntInts > budget/2)) {
+            delete((int)keys[k]);
+            k++;
+        }
+        if (learntInts > budget) {
+            // The clauses we'd rather keep are over budget on their own
+            k += evict(TIER2);
+            k += evict(CORE);
+        }
+        if (k > 0) {
+            removeDeleted();
+            if (arena.wasted > GARBAGE_FRACTION*arena.size) {
+                collectGarbage();
+            }
+        }
+    }
+
+    private void delete(int cr) {
+        learntInts -= ClauseArena.HEADER + arena.size(cr);
+        if (proof != null) {
+            proof.delete(arena, cr);
+        }
+        arena.free(cr);
+        deletedClauses++;
+    }
+
+    /**
+     * Delete the least active clauses of a tier until learned clauses
+     * take up at most half of the budget, or there are none left
+     * @param tier Tier to delete from
+     * @return Number of clauses deleted
+     */
+    private int evict(int tier) {
+        long[] keys = new long[learnts.size];
+        int numKeys = 0;
+        for (int i = 0; i < learnts.size; i++) {
+            int cr = learnts.data[i];
+            if (!arena.isDeleted(cr) && arena.tier(cr) == tier && !locked(cr)) {
+                keys[numKeys++] = ((long)Float.floatToRawIntBits(arena.activity(cr)) << 32) | cr;
+            }
+        }
+        Arrays.sort(keys, 0, numKeys);
+        int k = 0;
+        while (k < numKeys && learntInts > budget/2) {
+            delete((int)keys[k]);
+            k++;
+        }
+        return k;
+    }
+
+    /**
+     * Remove deleted clauses from the list of learned clauses and from
+     * the watch lists
+     */
+    private void removeDeleted() {
+        int j = 0;
+        for (int i = 0; i < learnts.size; i++) {
+            if (!arena.isDeleted(learnts.data[i])) {
+                learnts.data[j++] = learnts.data[i];
+            }
+        }
+        learnts.shrink(j);
+        for (IntVec ws: watches.watches) {
+            j = 0;
+            for (int i = 0; i < ws.size; i++) {
+                if (!arena.isDeleted(ws.data[i])) {
+                    ws.data[j++] = ws.data[i];
+                }
+            }
+            ws.shrink(j);
+        }
+    }
+
+    /**
+     * Compact the arena in place, and then update every reference to a
+     * clause (the clause lists, the watch lists, and the reasons on the
+     * trail) to point to where the clause has moved
+     */
+    private void collectGarbage() {
+        collections++;
+        IntVec orig = watches.clauses;
+        // Merge the two sorted lists of live clauses
+        IntVec live = new IntVec(orig.size + learnts.size);
+        int i = 0, j = 0;
+        while (i < orig.size || j < learnts.size) {
+            if (j == learnts.size || (i < orig.size && orig.data[i] < learnts.data[j])) {
+                live.push(orig.data[i++]);
+            }
+            else {
+                live.push(learnts.data[j++]);
+            }
+        }
+        int[] oldRefs = live.toArray();
+        arena.compact(live);
+        int[] newRefs = live.data;
+        for (i = 0; i < orig.size; i++) {
+            orig.data[i] = relocate(orig.data[i], oldRefs, newRefs);
+        }
+        for (i = 0; i < learnts.size; i++) {
+            learnts.data[i] = relocate(learnts.data[i], oldRefs, newRefs);
+        }
+        for (IntVec ws: watches.watches) {
+            for (i = 0; i < ws.size; i++) {
+                ws.data[i] = relocate(ws.data[i], oldRefs, newRefs);
+            }
+        }
+        for (i = 0; i < trail.size; i++) {
+            int v = trail.lits[i]>>1;
+            if (trail.reason[v] != Trail.NO_REASON) {
+                trail.reason[v] = relocate(trail.reason[v], oldRefs, newRefs);
+            }
+        }
+    }
+
+    private static int relocate(int cr, int[] oldRefs, int[] newRefs) {
+        return newRefs[Arrays.binarySearch(oldRefs, cr)];
+    }
+}
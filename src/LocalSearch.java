@@ -0,0 +1,325 @@
+import java.util.Random;
+
+/**
+ * A stochastic local search (SLS) solver.  It starts from a random
+ * assignment and keeps flipping the value of one variable in a random
+ * false clause until every clause is true.  It can find models of large
+ * satisfiable problems very quickly, but it can never show that a problem
+ * is unsatisfiable, so it gives up after a budget of flips.
+ *
+ * There are two rules for choosing which variable in the clause to flip,
+ * both based on its "break count", the number of true clauses that would
+ * become false:
+ *   WALKSAT: flip a variable that breaks nothing if there is one.  Otherwise,
+ *            with probability walkNoise flip a random one, and otherwise flip
+ *            the one that breaks the fewest (and makes the most false
+ *            clauses true)
+ *   PROBSAT: flip a variable with probability proportional to
+ *            (probsatEps + break)^-probsatCb
+ * Break and make counts are updated incrementally on each flip, by only
+ * looking at the clauses that contain the flipped variable.  If the number
+ * of false clauses hasn't gotten any better in stagnationFlips flips, we
+ * restart from a new random assignment.
+ *
+ * Literals are encoded as 2*var for xvar and 2*var+1 for ¬xvar
+ */
+class LocalSearch {
+    private static final int PROB_TABLE_SIZE = 64; // Precompute ProbSAT weights up to this break count
+
+    private int N; // Number of variables
+    private int[] clauseStart; // Clause c has literals lits[clauseStart[c]] to lits[clauseStart[c+1]-1]
+    private int[] lits;
+    private int numClauses;
+    private boolean emptyClause; // Whether some clause is empty, so nothing can satisfy them
+
+    // Occurrence index: the clauses containing literal l are
+    // occ[occStart[l]] to occ[occStart[l+1]-1]
+    private int[] occStart;
+    private int[] occ;
+
+    // Current assignment and the counters that depend on it
+    private boolean[] vals;
+    private int[] numTrue; // Number of true literals in each clause
+    private int[] trueXor; // XOR of the variables of the true literals in each clause,
+                           // which is the only true variable when numTrue is 1
+    private int[] breaks; // Number of clauses that would become false if a variable flipped
+    private int[] makes; // Number of false clauses that would become true if a variable flipped
+    private int[] falseClauses; // Clauses that are false, in no particular order
+    private int[] falsePos; // Position of each false clause in falseClauses
+    private int numFalse;
+
+    private SolverOptions.LocalSearch algorithm;
+    private double noise;
+    private double cb, eps;
+    private double[] probTable; // ProbSAT weight for each small break count
+    private double[] weights; // Working memory for ProbSAT
+    private long maxFlips, stagnationFlips;
+    private Random rand;
+
+    long flips, restarts; // Statistics
+
+    /**
+     * Index the clauses of a CNF.  The CNF itself is never modified
+     * @param cnf The expression to solve
+     * @param options Settings for the algorithm, its parameters, the flip
+     *                budget, and the random seed
+     */
+    public LocalSearch(CNF cnf, SolverOptions options) {
+        N = cnf.N;
+        algorithm = options.localSearch;
+        noise = options.walkNoise;
+        cb = options.probsatCb;
+        eps = options.probsatEps;
+        maxFlips = options.maxFlips;
+        stagnationFlips = options.stagnationFlips;
+        rand = new Random(options.seed);
+        probTable = new double[PROB_TABLE_SIZE];
+        for (int b = 0; b < PROB_TABLE_SIZE; b++) {
+            probTable[b] = Math.pow(eps + b, -cb);
+        }
+        load(cnf);
+    }
+
+    /**
+     * Copy the clauses into flat arrays, removing repeated literals and
+     * skipping tautologies, and build the occurrence index
+     * @param cnf The expression to solve
+     */
+    private void load(CNF cnf) {
+        IntVec start = new IntVec();
+        IntVec all = new IntVec();
+        byte[] seen = new byte[N];
+        ClauseIterator it = cnf.clauseIterator();
+        while (it.next()) {
+            int begin = all.size;
+            boolean tautology = false;
+            for (int k = 0; k < it.size(); k++) {
+                int lit = it.lit(k);
+                if (seen[lit>>1] == 0) {
+                    seen[lit>>1] = (byte)(1 + (lit&1));
+                    all.push(lit);
+                }
+                else if (seen[lit>>1] != 1 + (lit&1)) {
+                    tautology = true;
+                }
+            }
+            for (int i = begin; i < all.size; i++) {
+                seen[all.data[i]>>1] = 0;
+            }
+            if (tautology) {
+                all.shrink(begin);
+            }
+            else {
+                emptyClause |= all.size == begin;
+                start.push(begin);
+            }
+        }
+        numClauses = start.size;
+        start.push(all.size);
+        clauseStart = start.toArray();
+        lits = all.toArray();
+        occStart = new int[2*N+1];
+        for (int i = 0; i < lits.length; i++) {
+            occStart[lits[i]+1]++;
+        }
+        for (int l = 0; l < 2*N; l++) {
+            occStart[l+1] += occStart[l];
+        }
+        occ = new int[lits.length];
+        int[] fill = new int[2*N];
+        for (int c = 0; c < numClauses; c++) {
+            for (int i = clauseStart[c]; i < clauseStart[c+1]; i++) {
+                int l = lits[i];
+                occ[occStart[l] + fill[l]++] = c;
+            }
+        }
+        vals = new boolean[N];
+        numTrue = new int[numClauses];
+        trueXor = new int[numClauses];
+        breaks = new int[N];
+        makes = new int[N];
+        falseClauses = new int[numClauses];
+        falsePos = new int[numClauses];
+        int longest = 0;
+        for (int c = 0; c < numClauses; c++) {
+            longest = Math.max(longest, clauseStart[c+1] - clauseStart[c]);
+        }
+        weights = new double[longest];
+    }
+
+    private boolean isTrue(int lit) {
+        return vals[lit>>1] == ((lit&1) == 0);
+    }
+
+    /**
+     * Start over from a random assignment, and compute all of the
+     * counters from scratch
+     */
+    private void randomize() {
+        for (int v = 0; v < N; v++) {
+            vals[v] = rand.nextBoolean();
+            breaks[v] = 0;
+            makes[v] = 0;
+        }
+        numFalse = 0;
+        for (int c = 0; c < numClauses; c++) {
+            numTrue[c] = 0;
+            trueXor[c] = 0;
+            for (int i = clauseStart[c]; i < clauseStart[c+1]; i++) {
+                if (isTrue(lits[i])) {
+                    numTrue[c]++;
+                    trueXor[c] ^= lits[i]>>1;
+                }
+            }
+            if (numTrue[c] == 0) {
+                addFalse(c);
+                for (int i = clauseStart[c]; i < clauseStart[c+1]; i++) {
+                    makes[lits[i]>>1]++;
+                }
+            }
+            else if (numTrue[c] == 1) {
+                breaks[trueXor[c]]++;
+            }
+        }
+    }
+
+    private void addFalse(int c) {
+        falsePos[c] = numFalse;
+        falseClauses[numFalse++] = c;
+    }
+
+    private void removeFalse(int c) {
+        int last = falseClauses[--numFalse];
+        falseClauses[falsePos[c]] = last;
+        falsePos[last] = falsePos[c];
+    }
+
+    /**
+     * Flip the value of a variable and update the counters of every
+     * clause it is in
+     * @param v Variable to flip
+     */
+    private void flip(int v) {
+        vals[v] = !vals[v];
+        int made = vals[v] ? 2*v : 2*v+1; // Literal that just became true
+        int broken = made^1;
+        for (int i = occStart[made]; i < occStart[made+1]; i++) {
+            int c = occ[i];
+            if (numTrue[c] == 0) {
+                removeFalse(c);
+                for (int k = clauseStart[c]; k < clauseStart[c+1]; k++) {
+                    makes[lits[k]>>1]--;
+                }
+                breaks[v]++;
+            }
+            else if (numTrue[c] == 1) {
+                breaks[trueXor[c]]--;
+            }
+            numTrue[c]++;
+            trueXor[c] ^= v;
+        }
+        for (int i = occStart[broken]; i < occStart[broken+1]; i++) {
+            int c = occ[i];
+            numTrue[c]--;
+            trueXor[c] ^= v;
+            if (numTrue[c] == 0) {
+                addFalse(c);
+                for (int k = clauseStart[c]; k < clauseStart[c+1]; k++) {
+                    makes[lits[k]>>1]++;
+                }
+                breaks[v]--;
+            }
+            else if (numTrue[c] == 1) {
+                breaks[trueXor[c]]++;
+            }
+        }
+        flips++;
+    }
+
+    /**
+     * Choose a variable to flip in a false clause with the WalkSAT rule
+     * @param c Clause
+     * @return Variable to flip
+     */
+    private int pickWalkSAT(int c) {
+        int begin = clauseStart[c], len = clauseStart[c+1] - begin;
+        int best = -1;
+        for (int i = begin; i < begin + len; i++) {
+            int v = lits[i]>>1;
+            if (best == -1 || breaks[v] < breaks[best] || (breaks[v] == breaks[best] && makes[v] > makes[best])) {
+                best = v;
+            }
+        }
+        if (breaks[best] > 0 && rand.nextDouble() < noise) {
+            best = lits[begin + rand.nextInt(len)]>>1;
+        }
+        return best;
+    }
+
+    /**
+     * Choose a variable to flip in a false clause with the ProbSAT rule
+     * @param c Clause
+     * @return Variable to flip
+     */
+    private int pickProbSAT(int c) {
+        int begin = clauseStart[c], len = clauseStart[c+1] - begin;
+        double total = 0;
+        for (int i = 0; i < len; i++) {
+            int b = breaks[lits[begin+i]>>1];
+            weights[i] = b < PROB_TABLE_SIZE ? probTable[b] : Math.pow(eps + b, -cb);
+            total += weights[i];
+        }
+        double r = rand.nextDouble()*total;
+        int i = 0;
+        while (i < len-1 && r >= weights[i]) {
+            r -= weights[i];
+            i++;
+        }
+        return lits[begin+i]>>1;
+    }
+
+    /**
+     * Run the search
+     * @return The assignment of literals that satisfies the clauses,
+     *         or null if none was found within the flip budget
+     */
+    public boolean[] solve() {
+        PhaseEvents.Recorder event = PhaseEvents.SOLVE.begin();
+        boolean[] res = null;
+        if (!emptyClause) {
+            randomize();
+            int bestFalse = numFalse;
+            long lastImprovement = flips;
+            while (numFalse > 0 && flips < maxFlips) {
+                if (flips - lastImprovement > stagnationFlips) {
+                    // The new random assignment may satisfy every clause,
+                    // so go back to the loop test before picking a clause
+                    restarts++;
+                    randomize();
+                    bestFalse = numFalse;
+                    lastImprovement = flips;
+                }
+                else {
+                    int c = falseClauses[rand.nextInt(numFalse)];
+                    if (algorithm == SolverOptions.LocalSearch.WALKSAT) {
+                        flip(pickWalkSAT(c));
+                    }
+                    else {
+                        flip(pickProbSAT(c));
+                    }
+                    if (numFalse < bestFalse) {
+                        bestFalse = numFalse;
+                        lastImprovement = flips;
+                    }
+                }
+            }
+            if (numFalse == 0) {
+                res = vals.clone();
+            }
+        }
+        // Running out of flips is giving up, since it doesn't show that
+        // there is no model
+        event.finish(getClass().getSimpleName(), N, res != null, res == null, 0, 0);
+        return res;
+    }
+}
@@ -0,0 +1,28 @@
+/**
+ * Branch on the unassigned variable with the lowest index, which is
+ * what the original recursive DPLL does
+ */
+class LowestIndexHeuristic implements BranchHeuristic {
+    private int nextVar; // No variable below this index is unassigned
+
+    public int pickBranchVar(Trail trail) {
+        while (nextVar < trail.N && trail.value[nextVar] != Trail.UNASSIGNED) {
+            nextVar++;
+        }
+        int v = -1;
+        if (nextVar < trail.N) {
+            v = nextVar;
+        }
+        return v;
+    }
+
+    public void onUnassign(int v) {
+        if (v < nextVar) {
+            nextVar = v;
+        }
+    }
+
+    public void bump(int v) {}
+
+    public void onConflict() {}
+}
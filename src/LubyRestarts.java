@@ -0,0 +1,49 @@
+/**
+ * Restart after a number of conflicts that follows the Luby sequence
+ * 1, 1, 2, 1, 1, 2, 4, 1, 1, 2, 1, 1, 2, 4, 8, ... times a base interval.
+ * This is within a log factor of the best fixed restart schedule for
+ * any distribution of run times
+ */
+class LubyRestarts implements RestartPolicy {
+    private int base; // Number of conflicts in a unit interval
+    private int restarts; // Number of restarts so far
+    private long conflicts; // Conflicts since the last restart
+
+    public LubyRestarts(int base) {
+        this.base = base;
+    }
+
+    /**
+     * Compute the ith term of the Luby sequence
+     * @param i Index, starting at 0
+     * @return The ith term, which is always a power of 2
+     */
+    public static long luby(int i) {
+        // Find the finite subsequence that contains index i, and its size
+        int size = 1;
+        int seq = 0;
+        while (size < i+1) {
+            seq++;
+            size = 2*size+1;
+        }
+        while (size-1 != i) {
+            size = (size-1)>>1;
+            seq--;
+            i = i % size;
+        }
+        return 1L << seq;
+    }
+
+    public void onConflict(int lbd) {
+        conflicts++;
+    }
+
+    public boolean shouldRestart() {
+        return conflicts >= base*luby(restarts);
+    }
+
+    public void onRestart() {
+        restarts++;
+        conflicts = 0;
+    }
+}
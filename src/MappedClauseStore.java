@@ -0,0 +1,202 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+
+/**
+ * A read-only ClauseStore over a file in the BinaryCNF format, which is
+ * memory mapped so that the clauses are decoded straight from the file
+ * as they are visited, without being copied into the heap first.  The
+ * file is mapped in windows of whole blocks, so it can be larger than
+ * one mapping allows.
+ * Literals are encoded as 2*var for xvar and 2*var+1 for ¬xvar
+ */
+class MappedClauseStore implements ClauseStore {
+    private static final long MAP_SIZE = 1L << 30; // Most bytes to map at once
+
+    int N; // Number of variables in the header
+    private int blockSize;
+    private long numClauses;
+    private long[] blockOffsets; // File offset of the first clause in each block
+    private ArrayList<MappedByteBuffer> windows;
+    private IntVec windowBlocks; // First block in each window, followed by the number of blocks
+    private boolean closed;
+
+    /**
+     * Map a file
+     * @param file File in the BinaryCNF format
+     * @throws IOException If the file can't be read or isn't in that format
+     */
+    public MappedClauseStore(Path file) throws IOException {
+        FileChannel fc = FileChannel.open(file, StandardOpenOption.READ);
+        try {
+            ByteBuffer header = fc.map(FileChannel.MapMode.READ_ONLY, 0, BinaryCNF.HEADER_SIZE);
+            header.order(ByteOrder.LITTLE_ENDIAN);
+            if (header.getInt() != BinaryCNF.MAGIC) {
+                throw new IOException(file + " is not a binary CNF file");
+            }
+            if (header.getInt() != BinaryCNF.VERSION) {
+                throw new IOException(file + " has an unknown version");
+            }
+            N = header.getInt();
+            blockSize = header.getInt();
+            numClauses = header.getLong();
+            long indexOffset = header.getLong();
+            int numBlocks = (int)((numClauses + blockSize - 1)/blockSize);
+            blockOffsets = new long[numBlocks+1];
+            ByteBuffer index = fc.map(FileChannel.MapMode.READ_ONLY, indexOffset, 8L*numBlocks);
+            index.order(ByteOrder.LITTLE_ENDIAN);
+            for (int b = 0; b < numBlocks; b++) {
+                blockOffsets[b] = index.getLong();
+            }
+            blockOffsets[numBlocks] = indexOffset;
+            OffHeapClauseStore.free(header);
+            OffHeapClauseStore.free(index);
+            // Group the blocks into windows
+            windows = new ArrayList<MappedByteBuffer>();
+            windowBlocks = new IntVec();
+            int b = 0;
+            while (b < numBlocks) {
+                int end = b+1;
+                while (end < numBlocks && blockOffsets[end+1] - blockOffsets[b] <= MAP_SIZE) {
+                    end++;
+                }
+                windows.add(fc.map(FileChannel.MapMode.READ_ONLY, blockOffsets[b], blockOffsets[end] - blockOffsets[b]));
+                windowBlocks.push(b);
+                b = end;
+            }
+            windowBlocks.push(numBlocks);
+        }
+        finally {
+            fc.close();
+        }
+        closed = false;
+    }
+
+    public void add(IntVec lits) {
+        throw new UnsupportedOperationException("Clauses can't be added to a mapped file");
+    }
+
+    public int size() {
+        return (int)numClauses;
+    }
+
+    public ClauseIterator iterator() {
+        return iterator(0);
+    }
+
+    /**
+     * Start visiting the clauses partway through, using the block index
+     * to skip to the block that the first clause is in
+     * @param first Index of the first clause to visit
+     * @return A cursor that starts before that clause
+     */
+    public ClauseIterator iterator(long first) {
+        if (closed) {
+            throw new IllegalStateException("Clause store has been closed");
+        }
+        return new MappedIterator(first);
+    }
+
+    /**
+     * Decodes clauses one at a time from the windows
+     */
+    private class MappedIterator implements ClauseIterator {
+        private int w; // Current window
+        private ByteBuffer buf; // Current window, with its own position
+        private long clause; // Index of the next clause
+        private long windowEnd; // Index of the first clause after the current window
+        private int[] lits;
+        private int size;
+
+        public MappedIterator(long first) {
+            lits = new int[16];
+            clause = Math.min(first, numClauses);
+            w = -1;
+            if (clause < numClauses) {
+                int block = (int)(clause/blockSize);
+                w = 0;
+                while (windowBlocks.get(w+1) <= block) {
+                    w++;
+                }
+                openWindow();
+                buf.position((int)(blockOffsets[block] - blockOffsets[windowBlocks.get(w)]));
+                // Skip the clauses in this block before the first one
+                for (long c = (long)block*blockSize; c < clause; c++) {
+                    decode();
+                }
+            }
+        }
+
+        private void openWindow() {
+            buf = windows.get(w).duplicate();
+            windowEnd = Math.min((long)windowBlocks.get(w+1)*blockSize, numClauses);
+        }
+
+        private int readVarint() {
+            int x = 0;
+            int shift = 0;
+            byte b;
+            do {
+                b = buf.get();
+                x |= (b & 0x7F) << shift;
+                shift += 7;
+            } while (b < 0);
+            return x;
+        }
+
+        private void decode() {
+            size = readVarint();
+            if (lits.length < size) {
+                lits = new int[Math.max(size, 2*lits.length)];
+            }
+            int prev = 0;
+            for (int k = 0; k < size; k++) {
+                prev += BinaryCNF.unZigZag(readVarint());
+                lits[k] = CNF.toLit(prev);
+            }
+        }
+
+        public boolean next() {
+            if (closed) {
+                throw new IllegalStateException("Clause store has been closed");
+            }
+            boolean ret = clause < numClauses;
+            if (ret) {
+                if (clause == windowEnd) {
+                    w++;
+                    openWindow();
+                }
+                decode();
+                clause++;
+            }
+            return ret;
+        }
+
+        public int size() {
+            return size;
+        }
+
+        public int lit(int k) {
+            return lits[k];
+        }
+    }
+
+    /**
+     * Unmap the file right away, rather than waiting for the garbage
+     * collector.  Iterators from before this must not be used
+     */
+    public void close() {
+        if (!closed) {
+            closed = true;
+            for (MappedByteBuffer b: windows) {
+                OffHeapClauseStore.free(b);
+            }
+            windows.clear();
+        }
+    }
+}
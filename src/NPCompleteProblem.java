@@ -29,6 +29,14 @@ public class NPCompleteProblem {
         System.out.println("Warning: Calling makeRandomProblem() on base class");
     }
 
+    /**
+     * Return the size of the problem, as it was passed to makeRandomProblem()
+     * @return Size of problem, or 0 if the subclass doesn't say
+     */
+    public int getSize() {
+        return 0;
+    }
+
     /**
      * Reduce this problem to SAT by constructing a CNF clause
      * that is satisfied iff there is a solution to this decision
@@ -41,6 +49,33 @@ public class NPCompleteProblem {
         return null;
     }
 
+    /**
+     * Reduce this problem to SAT, sending the clauses to a sink as
+     * they are made.  Unless a subclass does this itself, the whole CNF
+     * is built with getCNF() first
+     * 
+     * @param sink Sink to which to add clauses
+     */
+    public void getCNF(ClauseSink sink) {
+        CNF c = getCNF();
+        if (c != null) {
+            int[] index = new int[0];
+            boolean[] pos = new boolean[0];
+            ClauseIterator it = c.clauseIterator();
+            while (it.next()) {
+                if (index.length != it.size()) {
+                    index = new int[it.size()];
+                    pos = new boolean[it.size()];
+                }
+                for (int k = 0; k < it.size(); k++) {
+                    index[k] = it.lit(k)>>1;
+                    pos[k] = (it.lit(k)&1) == 0;
+                }
+                sink.addClause(index, pos);
+            }
+        }
+    }
+
     /**
      * Used to initialize and return a certificate of the proper type
      * @param vals CNF certificate (array of true/false values for each literal)
@@ -52,21 +87,63 @@ public class NPCompleteProblem {
         return null;
     }
 
+    /**
+     * Reduce this problem to SAT with getCNF(), and record it as a Java
+     * Flight Recorder event (see PhaseEvents).  Call this rather than
+     * getCNF(), which is what subclasses override
+     * 
+     * @return CNF Clause
+     */
+    public CNF reduceToSAT() {
+        PhaseEvents.Recorder event = PhaseEvents.REDUCTION.begin();
+        CNF c = getCNF();
+        if (event.end() && c != null) {
+            event.commit(getClass().getSimpleName(), getSize(), c.N, (long)c.getNumClauses());
+        }
+        return c;
+    }
+
+    /**
+     * Turn a SAT assignment into a certificate with makeCertificateType(),
+     * and record it as a Java Flight Recorder event (see PhaseEvents).
+     * Call this rather than makeCertificateType()
+     * @param vals CNF certificate (array of true/false values for each literal)
+     * @param N Problem size
+     * @return A certificate of this problem's type
+     */
+    public Certificate decodeCertificate(boolean[] vals, int N) {
+        PhaseEvents.Recorder event = PhaseEvents.DECODE.begin();
+        Certificate cert = makeCertificateType(vals, N);
+        if (event.end()) {
+            event.commit(getClass().getSimpleName(), N);
+        }
+        return cert;
+    }
+
+    /**
+     * Make, solve, and check a number of random problems, printing how
+     * long each phase takes.  Each phase is also recorded as a Java Flight
+     * Recorder event (see PhaseEvents)
+     * 
+     * @param N Size of each problem
+     * @param numProblems Number of problems, which use the seeds 0, 1, ...
+     */
     public void testProblems(int N, int numProblems) {
         long tic, toc;
         for (long i = 0; i < numProblems; i++) {
             System.out.println("\n\nSeed " + i + "\n--------------------------");
             makeRandomProblem(N, i);
             tic = System.currentTimeMillis();
-            CNF c = getCNF();
+            CNF c = reduceToSAT();
             toc = System.currentTimeMillis();
             System.out.println("Elapsed time making CNF clauses: " + (toc-tic));
             tic = System.currentTimeMillis();
             boolean[] vals = c.solveDPLL();
             toc = System.currentTimeMillis();
             System.out.println("Elapsed time solving SAT: " + (toc-tic));
-            Certificate cert = makeCertificateType(vals, N);
-            System.out.println("Satisfied: " + cert.satisfiesProblem(this));
+            Certificate cert = decodeCertificate(vals, N);
+            boolean satisfied = cert.verify(this);
+            System.out.println("Satisfied: " + satisfied);
         }
     }
 
@@ -0,0 +1,161 @@
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.util.ArrayList;
+
+/**
+ * A ClauseStore outside of the Java heap, so that very large formulas
+ * don't count against the heap size or slow down garbage collection.
+ * Clauses are stored like in HeapClauseStore, as their number of literals
+ * followed by the literals, but in a list of direct buffers ("chunks").
+ * A clause never crosses from one chunk to the next, and a new chunk is
+ * started whenever the last one is full, so nothing is ever copied.
+ *
+ * Direct buffers are normally only freed when they are garbage collected,
+ * which may be much later, so close() frees them right away.
+ * Literals are encoded as 2*var for xvar and 2*var+1 for ¬xvar
+ */
+class OffHeapClauseStore implements ClauseStore {
+    private static final int DEFAULT_CHUNK_INTS = 1 << 22; // 16MB per chunk
+
+    private int chunkInts; // Number of ints in each chunk
+    private ArrayList<ByteBuffer> buffers; // Memory of each chunk, to free it
+    private ArrayList<IntBuffer> chunks; // Each chunk as ints
+    private IntVec used; // Number of ints used in each chunk
+    private int numClauses;
+    private boolean closed;
+
+    public OffHeapClauseStore() {
+        this(DEFAULT_CHUNK_INTS);
+    }
+
+    /**
+     * @param chunkInts Number of ints in each chunk
+     */
+    public OffHeapClauseStore(int chunkInts) {
+        this.chunkInts = chunkInts;
+        buffers = new ArrayList<ByteBuffer>();
+        chunks = new ArrayList<IntBuffer>();
+        used = new IntVec();
+        numClauses = 0;
+        closed = false;
+    }
+
+    private void checkOpen() {
+        if (closed) {
+            throw new IllegalStateException("Clause store has been closed");
+        }
+    }
+
+    public void add(IntVec lits) {
+        checkOpen();
+        int need = lits.size + 1;
+        if (chunks.isEmpty() || used.last() + need > chunks.get(chunks.size()-1).capacity()) {
+            // A clause longer than a chunk gets a chunk of its own
+            ByteBuffer b = ByteBuffer.allocateDirect(4*Math.max(chunkInts, need));
+            b.order(ByteOrder.nativeOrder());
+            buffers.add(b);
+            chunks.add(b.asIntBuffer());
+            used.push(0);
+        }
+        IntBuffer chunk = chunks.get(chunks.size()-1);
+        int pos = used.last();
+        chunk.put(pos, lits.size);
+        for (int i = 0; i < lits.size; i++) {
+            chunk.put(pos+1+i, lits.data[i]);
+        }
+        used.set(used.size-1, pos + need);
+        numClauses++;
+    }
+
+    public int size() {
+        return numClauses;
+    }
+
+    public ClauseIterator iterator() {
+        checkOpen();
+        return new ClauseIterator() {
+            private int chunkIdx = 0; // Which chunk the next clause is in
+            private IntBuffer chunk = null;
+            private int pos = -1; // Index of the header of the current clause
+            private int next = 0; // Index of the header of the next clause
+
+            public boolean next() {
+                checkOpen();
+                while (chunkIdx < chunks.size() && next >= used.get(chunkIdx)) {
+                    chunkIdx++;
+                    next = 0;
+                }
+                boolean ret = chunkIdx < chunks.size();
+                if (ret) {
+                    chunk = chunks.get(chunkIdx);
+                    pos = next;
+                    next = pos + 1 + chunk.get(pos);
+                }
+                return ret;
+            }
+
+            public int size() {
+                checkOpen(); // The chunk's memory may have been freed
+                return chunk.get(pos);
+            }
+
+            public int lit(int k) {
+                checkOpen();
+                return chunk.get(pos+1+k);
+            }
+        };
+    }
+
+    /**
+     * Free the memory of every chunk now, rather than waiting for the
+     * garbage collector.  Iterators from before this throw an
+     * IllegalStateException if they are used again, rather than reading
+     * memory that isn't there anymore.  That only holds if they are used
+     * on the thread that closes the store
+     */
+    public void close() {
+        if (!closed) {
+            closed = true;
+            for (ByteBuffer b: buffers) {
+                free(b);
+            }
+            buffers.clear();
+            chunks.clear();
+            used.clear();
+            numClauses = 0;
+        }
+    }
+
+    /**
+     * Free a direct buffer.  There's no public way to do this before
+     * Java 19, so we try sun.misc.Unsafe.invokeCleaner (Java 9 and up),
+     * and then the buffer's own cleaner (Java 8).  If neither works, the
+     * memory is freed whenever the buffer is garbage collected
+     * @param b Buffer to free
+     */
+    static void free(ByteBuffer b) {
+        try {
+            Class<?> unsafeClass = Class.forName("sun.misc.Unsafe");
+            Field f = unsafeClass.getDeclaredField("theUnsafe");
+            f.setAccessible(true);
+            Method invokeCleaner = unsafeClass.getMethod("invokeCleaner", ByteBuffer.class);
+            invokeCleaner.invoke(f.get(null), b);
+        }
+        catch (Exception e) {
+            try {
+                Method cleanerMethod = b.getClass().getMethod("cleaner");
+                cleanerMethod.setAccessible(true);
+                Object cleaner = cleanerMethod.invoke(b);
+                if (cleaner != null) {
+                    cleaner.getClass().getMethod("clean").invoke(cleaner);
+                }
+            }
+            catch (Exception e2) {
+                // Leave it to the garbage collector
+            }
+        }
+    }
+}
@@ -0,0 +1,114 @@
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Runs the recursive DPLL algorithm in CNF on several threads.  Near the
+ * top of the search tree, the two options of each branch are searched as
+ * separate tasks on a ForkJoinPool, so that idle threads can steal
+ * whole subtrees.  The option that tries false always wins if it has a
+ * model, just as in the sequential search, so the answer is exactly the
+ * same as CNF.solveDPLLRecursive().  Once it finds one, the search of the
+ * other option is stopped
+ */
+class ParallelDPLL {
+    private CNF cnf;
+    private int threads;
+    private int splitDepth; // Only split branches at fewer than this many levels deep
+    private int splitMinVars; // Only split branches with at least this many variables left
+
+    /**
+     * @param cnf The expression to solve
+     * @param options Settings for the number of threads and where to split
+     */
+    public ParallelDPLL(CNF cnf, SolverOptions options) {
+        this.cnf = cnf;
+        threads = Math.max(1, options.threads);
+        splitDepth = options.splitDepth;
+        splitMinVars = options.splitMinVars;
+    }
+
+    /**
+     * Run the search
+     * @param start Configuration to start from
+     * @return A solution to the configuration
+     */
+    public CNF.DPLLState solve(CNF.DPLLState start) {
+        PhaseEvents.Recorder event = PhaseEvents.SOLVE.begin();
+        CNF.DPLLState res;
+        ForkJoinPool pool = new ForkJoinPool(threads);
+        try {
+            res = pool.invoke(new Branch(null, start, 0));
+        }
+        finally {
+            pool.shutdown();
+        }
+        event.finish(getClass().getSimpleName(), cnf.N, res.isSatisfiable(), false, 0, 0);
+        return res;
+    }
+
+    /**
+     * The search of one subtree.  A subtree is stopped if it, or any
+     * subtree it is part of, is no longer needed
+     */
+    class Branch extends RecursiveTask<CNF.DPLLState> implements CNF.Splitter {
+        private static final long serialVersionUID = 1L;
+
+        private Branch parent; // Task that split off this one, or null
+        private CNF.DPLLState state;
+        private int depth;
+        private volatile boolean stopped;
+
+        public Branch(Branch parent, CNF.DPLLState state, int depth) {
+            this.parent = parent;
+            this.state = state;
+            this.depth = depth;
+            stopped = false;
+        }
+
+        protected CNF.DPLLState compute() {
+            return cnf.DPLL(state, depth, this);
+        }
+
+        /**
+         * @return Whether this subtree no longer needs to be searched
+         */
+        public boolean isStopped() {
+            boolean ret = false;
+            for (Branch b = this; b != null && !ret; b = b.parent) {
+                ret = b.stopped;
+            }
+            return ret;
+        }
+
+        /**
+         * @param depth Number of branches taken so far
+         * @param numVars Number of variables left to assign
+         * @return Whether a branch should be split into two tasks
+         */
+        public boolean shouldSplit(int depth, int numVars) {
+            return depth < splitDepth && numVars >= splitMinVars;
+        }
+
+        /**
+         * Search both options of a branch at once
+         * @param tryFalse Configuration where the branch variable is false
+         * @param tryTrue Configuration where the branch variable is true
+         * @param depth Number of branches taken, including this one
+         * @return The solution for false if it is satisfiable,
+         *         otherwise the solution for true
+         */
+        public CNF.DPLLState split(CNF.DPLLState tryFalse, CNF.DPLLState tryTrue, int depth) {
+            Branch right = new Branch(this, tryTrue, depth);
+            right.fork();
+            CNF.DPLLState ret = new Branch(this, tryFalse, depth).compute();
+            if (ret.isSatisfiable()) {
+                right.stopped = true;
+                right.tryUnfork();
+            }
+            else {
+                ret = right.join();
+            }
+            return ret;
+        }
+    }
+}
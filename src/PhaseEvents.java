@@ -0,0 +1,217 @@
+import java.lang.annotation.Annotation;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.reflect.Constructor;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Java Flight Recorder events for each phase of solving a problem by
+ * reducing it to SAT: making the clauses, solving them, turning the
+ * answer into a certificate, and checking the certificate.  In JDK
+ * Mission Control these show up under "NP-Complete Reductions", next to
+ * the GC and allocation events of the same period.
+ *
+ * The events are made by the wrappers that every caller goes through:
+ * NPCompleteProblem.reduceToSAT(), NPCompleteProblem.decodeCertificate(),
+ * Certificate.verify(), and the solve() of each solver.
+ *
+ * Nothing here links against jdk.jfr, which is missing from Java 8 before
+ * 8u262.  The first time this class is used, it checks by reflection
+ * whether jdk.jfr.Event is there, and if so makes the event types with
+ * jdk.jfr.EventFactory.  Otherwise every recorder does nothing.  When
+ * nothing is recording, end() is false, so the fields are only filled in
+ * when the event is actually going to be written
+ */
+class PhaseEvents {
+    static final String CATEGORY = "NP-Complete Reductions";
+
+    // Methods of jdk.jfr.Event and jdk.jfr.EventFactory, or null if there's no JFR
+    private static MethodHandle newEvent, begin, end, shouldCommit, set, commit;
+
+    static final Type REDUCTION = new Type("sat.Reduction", "Reduction to SAT",
+            "Making the CNF clauses for a problem with getCNF()",
+            new Class<?>[] {String.class, int.class, int.class, long.class},
+            new String[] {"problem", "size", "variables", "clauses"},
+            new String[] {"Problem", "Problem Size", "Variables", "Clauses"},
+            new String[4]);
+
+    static final Type SOLVE = new Type("sat.Solve", "SAT Solve",
+            "One run of a SAT solver",
+            new Class<?>[] {String.class, int.class, boolean.class, boolean.class, long.class, long.class},
+            new String[] {"solver", "variables", "satisfiable", "stopped", "decisions", "conflicts"},
+            new String[] {"Solver", "Variables", "Satisfiable", "Gave Up", "Decisions", "Conflicts"},
+            new String[] {null, null, null, "Whether the solver was stopped before it found an answer",
+                          "0 for solvers that don't count them", "0 for solvers that don't count them"});
+
+    static final Type DECODE = new Type("sat.Certificate", "Certificate Decoding",
+            "Turning a SAT assignment into a certificate with makeCertificateType()",
+            new Class<?>[] {String.class, int.class},
+            new String[] {"problem", "size"},
+            new String[] {"Problem", "Problem Size"},
+            new String[2]);
+
+    static final Type VERIFY = new Type("sat.Verify", "Certificate Check",
+            "Checking a certificate with satisfiesProblem()",
+            new Class<?>[] {String.class, boolean.class},
+            new String[] {"problem", "satisfied"},
+            new String[] {"Problem", "Satisfied"},
+            new String[2]);
+
+    /**
+     * One kind of event, made with jdk.jfr.EventFactory
+     */
+    static class Type {
+        private Object factory; // The jdk.jfr.EventFactory, or null if there's no JFR
+
+        /**
+         * @param name Name of the event in the recording
+         * @param label Label of the event
+         * @param description Description of the event
+         * @param types Type of each field
+         * @param fields Name of each field
+         * @param labels Label of each field
+         * @param descriptions Description of each field, or null for none
+         */
+        Type(String name, String label, String description, Class<?>[] types,
+             String[] fields, String[] labels, String[] descriptions) {
+            try {
+                Class<?> event = Class.forName("jdk.jfr.Event");
+                Class<?> eventFactory = Class.forName("jdk.jfr.EventFactory");
+                Class<?> annotationElement = Class.forName("jdk.jfr.AnnotationElement");
+                Class<?> valueDescriptor = Class.forName("jdk.jfr.ValueDescriptor");
+                Constructor<?> annotation = annotationElement.getConstructor(Class.class, Object.class);
+                Constructor<?> value = valueDescriptor.getConstructor(Class.class, String.class, List.class);
+
+                List<Object> annotations = new ArrayList<Object>();
+                annotations.add(annotation.newInstance(annotationType("Name"), name));
+                annotations.add(annotation.newInstance(annotationType("Label"), label));
+                annotations.add(annotation.newInstance(annotationType("Category"), new String[] {CATEGORY}));
+                annotations.add(annotation.newInstance(annotationType("Description"), description));
+                List<Object> values = new ArrayList<Object>();
+                for (int i = 0; i < fields.length; i++) {
+                    List<Object> fieldAnnotations = new ArrayList<Object>();
+                    fieldAnnotations.add(annotation.newInstance(annotationType("Label"), labels[i]));
+                    if (descriptions[i] != null) {
+                        fieldAnnotations.add(annotation.newInstance(annotationType("Description"), descriptions[i]));
+                    }
+                    values.add(value.newInstance(types[i], fields[i], fieldAnnotations));
+                }
+                factory = eventFactory.getMethod("create", List.class, List.class).invoke(null, annotations, values);
+
+                if (newEvent == null) {
+                    MethodHandles.Lookup lookup = MethodHandles.publicLookup();
+                    begin = lookup.unreflect(event.getMethod("begin"));
+                    end = lookup.unreflect(event.getMethod("end"));
+                    shouldCommit = lookup.unreflect(event.getMethod("shouldCommit"));
+                    set = lookup.unreflect(event.getMethod("set", int.class, Object.class));
+                    commit = lookup.unreflect(event.getMethod("commit"));
+                    newEvent = lookup.unreflect(eventFactory.getMethod("newEvent"));
+                }
+            }
+            catch (ReflectiveOperationException | RuntimeException | LinkageError e) {
+                factory = null;
+            }
+        }
+
+        /**
+         * @param name Simple name of an annotation in jdk.jfr
+         * @return The annotation class
+         */
+        private static Class<? extends Annotation> annotationType(String name) throws ClassNotFoundException {
+            return Class.forName("jdk.jfr." + name).asSubclass(Annotation.class);
+        }
+
+        /**
+         * Start timing an event of this type
+         * @return A recorder to end the event with
+         */
+        Recorder begin() {
+            if (factory == null) {
+                return Recorder.NONE;
+            }
+            try {
+                Object event = newEvent.invoke(factory);
+                begin.invoke(event);
+                return new Recorder(event);
+            }
+            catch (Throwable e) {
+                throw rethrow(e);
+            }
+        }
+    }
+
+    /**
+     * One event that has begun
+     */
+    static class Recorder {
+        static final Recorder NONE = new Recorder(null); // Does nothing
+        private Object event; // The jdk.jfr.Event, or null if there's no JFR
+
+        private Recorder(Object event) {
+            this.event = event;
+        }
+
+        /**
+         * Stop timing the event
+         * @return Whether something is recording it, in which case
+         *         commit() should be called
+         */
+        boolean end() {
+            if (event == null) {
+                return false;
+            }
+            try {
+                end.invoke(event);
+                return (boolean)shouldCommit.invoke(event);
+            }
+            catch (Throwable e) {
+                throw rethrow(e);
+            }
+        }
+
+        /**
+         * Fill in the fields and write out the event
+         * @param values The value of each field, in the order of the type
+         */
+        void commit(Object... values) {
+            if (event == null) {
+                return;
+            }
+            try {
+                for (int i = 0; i < values.length; i++) {
+                    set.invoke(event, i, values[i]);
+                }
+                commit.invoke(event);
+            }
+            catch (Throwable e) {
+                throw rethrow(e);
+            }
+        }
+
+        /**
+         * End the event and write it out if something is recording
+         * @param values The value of each field, in the order of the type
+         */
+        void finish(Object... values) {
+            if (end()) {
+                commit(values);
+            }
+        }
+    }
+
+    /**
+     * @param e Something thrown by a method of jdk.jfr
+     * @return The same exception if it's unchecked, so that the caller
+     *         can throw it, or else an IllegalStateException around it
+     */
+    private static RuntimeException rethrow(Throwable e) {
+        if (e instanceof Error) {
+            throw (Error)e;
+        }
+        if (e instanceof RuntimeException) {
+            return (RuntimeException)e;
+        }
+        return new IllegalStateException(e);
+    }
+}
@@ -0,0 +1,104 @@
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Runs several CDCL solvers on the same clauses at once, each with
+ * different settings (restart policy, random seed, activity decay),
+ * since which settings work best varies a lot from problem to problem.
+ * The solvers share short learned clauses through a ClauseExchange, and
+ * as soon as any one of them finds a model or proves that there is none,
+ * the rest are told to stop
+ */
+class PortfolioSolver {
+    private static final SolverOptions.Restarts[] RESTARTS = {
+        SolverOptions.Restarts.LUBY, SolverOptions.Restarts.GLUCOSE,
+        SolverOptions.Restarts.GEOMETRIC, SolverOptions.Restarts.LUBY
+    };
+
+    private CNF cnf;
+    private SolverOptions[] configs; // Settings for each solver
+    int winner; // Index of the solver that finished first, or -1
+
+    /**
+     * @param cnf The expression to solve
+     * @param options Settings that every solver starts from.  options.threads
+     *                solvers are run, and the first one uses exactly these settings
+     */
+    public PortfolioSolver(CNF cnf, SolverOptions options) {
+        this.cnf = cnf;
+        int n = Math.max(1, options.threads);
+        configs = new SolverOptions[n];
+        for (int i = 0; i < n; i++) {
+            configs[i] = options.copy();
+            if (i > 0) {
+                configs[i].restarts = RESTARTS[i%RESTARTS.length];
+                configs[i].seed = options.seed + i;
+                configs[i].varDecay = (i%2 == 0) ? 0.95 : 0.9;
+            }
+        }
+        winner = -1;
+    }
+
+    /**
+     * Run the solvers
+     * @return The assignment of literals that satisfies the clauses,
+     *         or null if they are not satisfiable
+     */
+    public boolean[] solve() {
+        final AtomicBoolean stop = new AtomicBoolean(false);
+        final ClauseExchange exchange = new ClauseExchange(configs.length);
+        ExecutorService pool = Executors.newFixedThreadPool(configs.length);
+        ExecutorCompletionService<boolean[]> done = new ExecutorCompletionService<boolean[]>(pool);
+        final int[] finished = {-1};
+        for (int i = 0; i < configs.length; i++) {
+            final int id = i;
+            done.submit(new Callable<boolean[]>() {
+                public boolean[] call() {
+                    CDCLSolver solver = new CDCLSolver(cnf, configs[id]);
+                    solver.setStop(stop);
+                    solver.setExchange(exchange, id);
+                    boolean[] res = solver.solve();
+                    if (!solver.wasStopped()) {
+                        synchronized (finished) {
+                            if (finished[0] == -1) {
+                                finished[0] = id;
+                            }
+                        }
+                    }
+                    return res;
+                }
+            });
+        }
+        // Nobody sets the stop flag before the first solver finishes,
+        // so the first result is always a real answer
+        boolean[] res = null;
+        try {
+            res = done.take().get();
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        catch (ExecutionException e) {
+            throw new RuntimeException(e.getCause());
+        }
+        finally {
+            stop.set(true);
+            pool.shutdown();
+        }
+        try {
+            pool.awaitTermination(1, TimeUnit.MINUTES);
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        synchronized (finished) {
+            winner = finished[0];
+        }
+        return res;
+    }
+}
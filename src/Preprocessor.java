@@ -0,0 +1,755 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+
+/**
+ * Simplify a CNF before search in the style of SatELite.  The passes are
+ *   - Unit propagation at level 0
+ *   - Backward subsumption: drop any clause that contains all of the
+ *     literals of another clause (which also removes duplicates)
+ *   - Self-subsuming resolution: if C = (l V A) and D = (¬l V A V B),
+ *     then resolving them gives (A V B), so ¬l can be removed from D
+ *   - Bounded variable elimination: replace all of the clauses containing
+ *     a variable with all of their resolvents on that variable, as long
+ *     as that doesn't increase the number of clauses
+ *   - Blocked clause elimination: drop a clause C if it has a literal l
+ *     such that every resolvent of C on l is a tautology
+ *   - Failed literal probing (if options.probe is set): assign each
+ *     literal on its own and propagate.  If that leads to a conflict, the
+ *     literal must be false, and anything implied by both a literal and
+ *     its complement must be true
+ *   - Equivalent literal substitution (if options.probe is set): literals
+ *     in the same strongly connected component of the implication graph
+ *     of the binary clauses are equivalent, so each one is replaced by
+ *     a single representative
+ *
+ * Elimination and substitution give a formula that is satisfiable exactly when the
+ * original is, but whose models might not satisfy the original.  Every
+ * clause they remove is pushed onto a stack along with a "witness"
+ * literal, and extendModel() walks back through the stack, making the
+ * witness true whenever a removed clause is false, to recover a model of
+ * the original formula over all of the original variables.
+ *
+ * Literals are encoded internally as 2*var for xvar and 2*var+1 for ¬xvar
+ */
+class Preprocessor {
+    private int N; // Number of variables
+    private ArrayList<int[]> clauses; // Sorted literals of each clause, or null if it's been removed
+    private long[] sig; // Bitmask of (var mod 64) for each clause, for quick subset tests
+    private IntVec[] occ; // Clauses containing each literal (may include removed clauses)
+    private byte[] value; // Variables that have been fixed at level 0
+    private boolean[] eliminated; // Variables removed by variable elimination
+    private IntVec units; // Literals that have yet to be propagated
+    private IntVec subsumeQueue; // Clauses that may subsume or strengthen others
+    private boolean[] inQueue;
+    private IntVec stack; // Reconstruction stack: literals of a clause, then witness, then length
+    private int[] mark; // For checking tautologies
+    private int markStamp;
+
+    private int occLimit; // Skip eliminating variables that show up more than this
+    private int resolventLimit; // Skip eliminating variables with resolvents longer than this
+    private int blockedOccLimit; // Skip blocked clause checks against longer occurrence lists
+    private boolean probe; // Whether to run probing and equivalent literal substitution
+    private long probeTimeMs; // Time budget for probing
+
+    boolean unsat; // Whether the formula was found to be unsatisfiable
+    int numFixed, numSubsumed, numStrengthened, numEliminated, numBlocked; // Statistics
+    int numProbed, numFailed, numProbeFixed, numEquivalent; // Statistics for probing
+
+    /**
+     * @param cnf Formula to simplify (it won't be modified)
+     * @param options Limits on how much work to do
+     */
+    public Preprocessor(CNF cnf, SolverOptions options) {
+        N = cnf.N;
+        occLimit = options.elimOccLimit;
+        resolventLimit = options.elimResolventLimit;
+        blockedOccLimit = options.blockedOccLimit;
+        probe = options.probe;
+        probeTimeMs = options.probeTimeMs;
+        clauses = new ArrayList<int[]>();
+        sig = new long[Math.max(cnf.getNumClauses(), 16)];
+        occ = new IntVec[2*N];
+        for (int l = 0; l < 2*N; l++) {
+            occ[l] = new IntVec();
+        }
+        value = new byte[N];
+        eliminated = new boolean[N];
+        units = new IntVec();
+        subsumeQueue = new IntVec();
+        inQueue = new boolean[sig.length];
+        stack = new IntVec();
+        mark = new int[2*N];
+        IntVec lits = new IntVec();
+        ClauseIterator it = cnf.clauseIterator();
+        while (it.next()) {
+            lits.clear();
+            for (int k = 0; k < it.size(); k++) {
+                lits.push(it.lit(k));
+            }
+            addClause(lits);
+        }
+    }
+
+    /**
+     * Sort a clause, remove repeated literals, and add it if it isn't
+     * a tautology
+     * @param lits Literals of the clause (this will be modified)
+     */
+    private void addClause(IntVec lits) {
+        Arrays.sort(lits.data, 0, lits.size);
+        int j = 0;
+        boolean tautology = false;
+        for (int i = 0; i < lits.size; i++) {
+            int lit = lits.data[i];
+            if (j > 0 && lits.data[j-1] == (lit^1)) {
+                tautology = true;
+            }
+            if (j == 0 || lits.data[j-1] != lit) {
+                lits.data[j++] = lit;
+            }
+        }
+        lits.shrink(j);
+        if (tautology) {
+            return;
+        }
+        if (lits.size == 0) {
+            unsat = true;
+        }
+        else if (lits.size == 1) {
+            units.push(lits.data[0]);
+        }
+        else {
+            int id = clauses.size();
+            clauses.add(lits.toArray());
+            if (id == sig.length) {
+                sig = Arrays.copyOf(sig, 2*id);
+                inQueue = Arrays.copyOf(inQueue, 2*id);
+            }
+            sig[id] = signature(clauses.get(id));
+            for (int i = 0; i < lits.size; i++) {
+                occ[lits.data[i]].push(id);
+            }
+            enqueueSubsume(id);
+        }
+    }
+
+    private static long signature(int[] c) {
+        long s = 0;
+        for (int lit: c) {
+            s |= 1L << ((lit>>1) & 63);
+        }
+        return s;
+    }
+
+    private void enqueueSubsume(int id) {
+        if (!inQueue[id]) {
+            inQueue[id] = true;
+            subsumeQueue.push(id);
+        }
+    }
+
+    /**
+     * Put a removed clause on the reconstruction stack
+     * @param c Literals of the clause
+     * @param witness Literal to make true if the clause is false
+     */
+    private void pushStack(int[] c, int witness) {
+        for (int lit: c) {
+            stack.push(lit);
+        }
+        stack.push(witness);
+        stack.push(c.length);
+    }
+
+    private void removeClause(int id) {
+        clauses.set(id, null);
+    }
+
+    /**
+     * Remove a literal from a clause, queueing it up as a unit if
+     * that's all that's left
+     * @param id Clause index
+     * @param lit Literal to remove
+     */
+    private void strengthen(int id, int lit) {
+        int[] c = clauses.get(id);
+        int[] d = new int[c.length-1];
+        int j = 0;
+        for (int k = 0; k < c.length; k++) {
+            if (c[k] != lit) {
+                d[j++] = c[k];
+            }
+        }
+        IntVec o = occ[lit];
+        j = 0;
+        for (int i = 0; i < o.size; i++) {
+            if (o.data[i] != id) {
+                o.data[j++] = o.data[i];
+            }
+        }
+        o.shrink(j);
+        if (d.length == 1) {
+            removeClause(id);
+            units.push(d[0]);
+        }
+        else {
+            clauses.set(id, d);
+            sig[id] = signature(d);
+            enqueueSubsume(id);
+        }
+    }
+
+    /**
+     * Assign all of the queued unit literals, removing the clauses they
+     * make true and the literals they make false
+     */
+    private void propagateUnits() {
+        while (units.size > 0 && !unsat) {
+            int lit = units.pop();
+            int v = lit>>1;
+            byte val = (lit&1) == 0 ? Trail.TRUE : Trail.FALSE;
+            if (value[v] == -val) {
+                unsat = true;
+            }
+            else if (value[v] == Trail.UNASSIGNED) {
+                value[v] = val;
+                numFixed++;
+                pushStack(new int[]{lit}, lit);
+                IntVec o = occ[lit];
+                for (int i = 0; i < o.size; i++) {
+                    removeClause(o.data[i]);
+                }
+                o.clear();
+                o = occ[lit^1];
+                while (o.size > 0 && !unsat) {
+                    int id = o.last();
+                    if (clauses.get(id) == null) {
+                        o.pop();
+                    }
+                    else {
+                        strengthen(id, lit^1);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Check whether clause c subsumes clause d, or whether d can be
+     * strengthened by self-subsuming resolution with c
+     * @param c Sorted literals of the first clause
+     * @param d Sorted literals of the second clause
+     * @return -1 if c subsumes d, a literal to remove from d if d can be
+     *         strengthened, or -2 if neither
+     */
+    private static int subsumes(int[] c, int[] d) {
+        int ret = -1;
+        int j = 0;
+        for (int i = 0; i < c.length && ret != -2; i++) {
+            int v = c[i]>>1;
+            while (j < d.length && (d[j]>>1) < v) {
+                j++;
+            }
+            if (j == d.length || (d[j]>>1) != v) {
+                ret = -2;
+            }
+            else if (d[j] != c[i]) {
+                ret = (ret == -1) ? d[j] : -2;
+            }
+        }
+        return ret;
+    }
+
+    /**
+     * Use a clause to remove or strengthen every other clause it can.
+     * Any clause it affects has to contain the variable of c with the
+     * fewest occurrences, so we only need to look at those
+     * @param id Clause index
+     */
+    private void backwardSubsume(int id) {
+        int[] c = clauses.get(id);
+        int best = c[0];
+        for (int k = 1; k < c.length; k++) {
+            int l = c[k];
+            if (occ[l].size + occ[l^1].size < occ[best].size + occ[best^1].size) {
+                best = l;
+            }
+        }
+        for (int pass = 0; pass < 2 && clauses.get(id) != null; pass++) {
+            IntVec o = occ[best^pass];
+            for (int i = 0; i < o.size; i++) {
+                int did = o.data[i];
+                int[] d = clauses.get(did);
+                if (did != id && d != null && d.length >= c.length && (sig[id] & ~sig[did]) == 0) {
+                    int res = subsumes(c, d);
+                    if (res == -1) {
+                        numSubsumed++;
+                        removeClause(did);
+                    }
+                    else if (res >= 0) {
+                        numStrengthened++;
+                        strengthen(did, res);
+                        if (o == occ[res]) {
+                            i--; // did was taken out of the list we're looping through
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Run backward subsumption on every queued clause
+     */
+    private void subsumeAll() {
+        while (subsumeQueue.size > 0 && !unsat) {
+            int id = subsumeQueue.pop();
+            inQueue[id] = false;
+            if (clauses.get(id) != null) {
+                backwardSubsume(id);
+            }
+            propagateUnits();
+        }
+    }
+
+    /**
+     * Remove clauses that have been deleted from an occurrence list
+     * @param lit Literal
+     * @return The cleaned up list
+     */
+    private IntVec liveOcc(int lit) {
+        IntVec o = occ[lit];
+        int j = 0;
+        for (int i = 0; i < o.size; i++) {
+            if (clauses.get(o.data[i]) != null) {
+                o.data[j++] = o.data[i];
+            }
+        }
+        o.shrink(j);
+        return o;
+    }
+
+    /**
+     * Resolve two clauses on a variable
+     * @param c Clause containing the variable positively
+     * @param d Clause containing the variable negatively
+     * @param v Variable
+     * @param out Where to put the resolvent
+     * @return False if the resolvent is a tautology
+     */
+    private boolean resolve(int[] c, int[] d, int v, IntVec out) {
+        out.clear();
+        markStamp++;
+        for (int lit: c) {
+            if ((lit>>1) != v) {
+                out.push(lit);
+                mark[lit] = markStamp;
+            }
+        }
+        boolean tautology = false;
+        for (int k = 0; k < d.length && !tautology; k++) {
+            int lit = d[k];
+            if ((lit>>1) != v) {
+                if (mark[lit^1] == markStamp) {
+                    tautology = true;
+                }
+                else if (mark[lit] != markStamp) {
+                    out.push(lit);
+                }
+            }
+        }
+        return !tautology;
+    }
+
+    /**
+     * Try to eliminate a variable by replacing the clauses it's in with
+     * all of their non-tautological resolvents
+     * @param v Variable
+     * @return Whether the variable was eliminated
+     */
+    private boolean tryEliminate(int v) {
+        IntVec pos = liveOcc(2*v);
+        IntVec neg = liveOcc(2*v+1);
+        if (pos.size + neg.size == 0 || pos.size + neg.size > occLimit) {
+            return false;
+        }
+        // Count the resolvents first, and give up if there are too many
+        IntVec res = new IntVec();
+        ArrayList<int[]> resolvents = new ArrayList<int[]>();
+        boolean ok = true;
+        for (int i = 0; i < pos.size && ok; i++) {
+            for (int j = 0; j < neg.size && ok; j++) {
+                if (resolve(clauses.get(pos.data[i]), clauses.get(neg.data[j]), v, res)) {
+                    resolvents.add(res.toArray());
+                    ok = resolvents.size() <= pos.size + neg.size && res.size <= resolventLimit;
+                }
+            }
+        }
+        if (!ok) {
+            return false;
+        }
+        // Save the old clauses for reconstruction and remove them
+        for (int i = 0; i < pos.size; i++) {
+            pushStack(clauses.get(pos.data[i]), 2*v);
+            removeClause(pos.data[i]);
+        }
+        for (int i = 0; i < neg.size; i++) {
+            pushStack(clauses.get(neg.data[i]), 2*v+1);
+            removeClause(neg.data[i]);
+        }
+        pos.clear();
+        neg.clear();
+        eliminated[v] = true;
+        numEliminated++;
+        for (int[] r: resolvents) {
+            IntVec lits = new IntVec(r.length);
+            for (int lit: r) {
+                lits.push(lit);
+            }
+            addClause(lits);
+        }
+        return true;
+    }
+
+    /**
+     * Run variable elimination over all variables, interleaved with
+     * subsumption of the new resolvents, until nothing changes
+     */
+    private void eliminateAll() {
+        boolean changed = true;
+        while (changed && !unsat) {
+            changed = false;
+            for (int v = 0; v < N && !unsat; v++) {
+                if (value[v] == Trail.UNASSIGNED && !eliminated[v] && tryEliminate(v)) {
+                    changed = true;
+                    propagateUnits();
+                    subsumeAll();
+                }
+            }
+        }
+    }
+
+    /**
+     * Remove every clause that is blocked on one of its literals
+     */
+    private void eliminateBlocked() {
+        IntVec res = new IntVec();
+        for (int id = 0; id < clauses.size(); id++) {
+            int[] c = clauses.get(id);
+            boolean blocked = false;
+            for (int k = 0; c != null && k < c.length && !blocked; k++) {
+                int l = c[k];
+                IntVec o = liveOcc(l^1);
+                if (o.size <= blockedOccLimit) {
+                    blocked = true;
+                    for (int i = 0; i < o.size && blocked; i++) {
+                        blocked = !resolve(c, clauses.get(o.data[i]), l>>1, res);
+                    }
+                    if (blocked) {
+                        numBlocked++;
+                        pushStack(c, l);
+                        removeClause(id);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Assign each variable both ways at decision level 1 and propagate,
+     * using a WatchIndex over the current clauses.  A literal that leads
+     * to a conflict is failed, so its complement is a unit, and literals
+     * implied by both values of a variable are units
+     * @param deadline Time (in milliseconds) at which to stop probing
+     */
+    private void probeAll(long deadline) {
+        ClauseArena arena = new ClauseArena();
+        WatchIndex watches = new WatchIndex(arena, N);
+        Trail trail = new Trail(N);
+        IntVec lits = new IntVec();
+        for (int[] c: clauses) {
+            if (c != null) {
+                lits.clear();
+                for (int lit: c) {
+                    lits.push(lit);
+                }
+                watches.addClause(lits, trail);
+            }
+        }
+        int[] implied = new int[2*N]; // Probe number that last implied each literal
+        IntVec both = new IntVec();
+        boolean ok = !watches.unsat && watches.propagate(trail) == Trail.NO_REASON;
+        for (int v = 0; v < N && ok && System.currentTimeMillis() < deadline; v++) {
+            if (trail.value[v] != Trail.UNASSIGNED || value[v] != Trail.UNASSIGNED || eliminated[v]) {
+                continue;
+            }
+            numProbed++;
+            both.clear();
+            int failed = -1;
+            for (int sign = 0; sign < 2 && failed == -1; sign++) {
+                trail.newDecisionLevel();
+                trail.enqueue(2*v+sign, Trail.NO_REASON);
+                if (watches.propagate(trail) != Trail.NO_REASON) {
+                    failed = 2*v+sign;
+                }
+                else {
+                    for (int i = trail.levelStart(1)+1; i < trail.size; i++) {
+                        int lit = trail.lits[i];
+                        if (sign == 0) {
+                            implied[lit] = numProbed;
+                        }
+                        else if (implied[lit] == numProbed) {
+                            both.push(lit);
+                        }
+                    }
+                }
+                trail.cancelUntil(0);
+            }
+            if (failed != -1) {
+                numFailed++;
+                both.clear();
+                both.push(failed^1);
+            }
+            for (int i = 0; i < both.size && ok; i++) {
+                if (trail.litValue(both.data[i]) == Trail.UNASSIGNED) {
+                    trail.enqueue(both.data[i], Trail.NO_REASON);
+                    ok = watches.propagate(trail) == Trail.NO_REASON;
+                }
+            }
+        }
+        if (!ok) {
+            unsat = true;
+        }
+        for (int i = 0; i < trail.size; i++) {
+            if (value[trail.lits[i]>>1] == Trail.UNASSIGNED) {
+                numProbeFixed++;
+                units.push(trail.lits[i]);
+            }
+        }
+        propagateUnits();
+    }
+
+    /**
+     * Find strongly connected components of the implication graph of the
+     * binary clauses with Tarjan's algorithm, and replace every literal
+     * with the literal of lowest variable index in its component
+     */
+    private void substituteEquivalences() {
+        // Build the graph in compressed form: (a V b) gives ¬a -> b and ¬b -> a
+        int[] start = new int[2*N+1];
+        for (int[] c: clauses) {
+            if (c != null && c.length == 2) {
+                start[(c[0]^1)+1]++;
+                start[(c[1]^1)+1]++;
+            }
+        }
+        for (int l = 0; l < 2*N; l++) {
+            start[l+1] += start[l];
+        }
+        int[] edges = new int[start[2*N]];
+        int[] fill = Arrays.copyOf(start, 2*N);
+        for (int[] c: clauses) {
+            if (c != null && c.length == 2) {
+                edges[fill[c[0]^1]++] = c[1];
+                edges[fill[c[1]^1]++] = c[0];
+            }
+        }
+        // Iterative Tarjan
+        int[] index = new int[2*N];
+        int[] low = new int[2*N];
+        boolean[] onStack = new boolean[2*N];
+        int[] rep = new int[2*N];
+        Arrays.fill(index, -1);
+        IntVec sccStack = new IntVec();
+        IntVec callStack = new IntVec(); // Literal, and how far along its edges we are
+        int counter = 0;
+        for (int root = 0; root < 2*N; root++) {
+            if (index[root] != -1) {
+                continue;
+            }
+            callStack.push(root);
+            callStack.push(start[root]);
+            index[root] = low[root] = counter++;
+            sccStack.push(root);
+            onStack[root] = true;
+            while (callStack.size > 0) {
+                int e = callStack.pop();
+                int u = callStack.last();
+                if (e < start[u+1]) {
+                    callStack.push(e+1);
+                    int w = edges[e];
+                    if (index[w] == -1) {
+                        index[w] = low[w] = counter++;
+                        sccStack.push(w);
+                        onStack[w] = true;
+                        callStack.push(w);
+                        callStack.push(start[w]);
+                    }
+                    else if (onStack[w]) {
+                        low[u] = Math.min(low[u], index[w]);
+                    }
+                }
+                else {
+                    callStack.pop();
+                    if (callStack.size > 0) {
+                        int parent = callStack.data[callStack.size-2];
+                        low[parent] = Math.min(low[parent], low[u]);
+                    }
+                    if (low[u] == index[u]) {
+                        // u is the root of a component; pick its representative
+                        int best = -1;
+                        int i = sccStack.size-1;
+                        do {
+                            int w = sccStack.data[i];
+                            if (best == -1 || (w>>1) < (best>>1)) {
+                                best = w;
+                            }
+                        } while (sccStack.data[i--] != u);
+                        int w;
+                        do {
+                            w = sccStack.pop();
+                            onStack[w] = false;
+                            rep[w] = best;
+                        } while (w != u);
+                    }
+                }
+            }
+        }
+        // A literal and its complement in the same component means unsatisfiable
+        for (int v = 0; v < N && !unsat; v++) {
+            unsat = rep[2*v] == rep[2*v+1];
+        }
+        if (unsat) {
+            return;
+        }
+        // Record how to recover each substituted variable, and rewrite the clauses
+        boolean[] substituted = new boolean[N];
+        for (int v = 0; v < N; v++) {
+            int r = rep[2*v];
+            if ((r>>1) != v && value[v] == Trail.UNASSIGNED && !eliminated[v]) {
+                substituted[v] = true;
+                eliminated[v] = true;
+                numEquivalent++;
+            }
+        }
+        if (numEquivalent == 0) {
+            return;
+        }
+        IntVec lits = new IntVec();
+        int numClauses = clauses.size();
+        for (int id = 0; id < numClauses; id++) {
+            int[] c = clauses.get(id);
+            boolean changed = false;
+            for (int k = 0; c != null && k < c.length && !changed; k++) {
+                changed = substituted[c[k]>>1];
+            }
+            if (changed) {
+                removeClause(id);
+                lits.clear();
+                for (int lit: c) {
+                    lits.push(substituted[lit>>1] ? rep[lit] : lit);
+                }
+                addClause(lits);
+            }
+        }
+        for (int v = 0; v < N; v++) {
+            if (substituted[v]) {
+                // Encode v = rep as two clauses, with v's literals as witnesses
+                int r = rep[2*v];
+                pushStack(new int[]{r^1, 2*v}, 2*v);
+                pushStack(new int[]{r, 2*v+1}, 2*v+1);
+            }
+        }
+    }
+
+    /**
+     * @return The number of variables that probing and equivalent literal
+     *         substitution removed from the formula
+     */
+    public int probeRemoved() {
+        return numProbeFixed + numEquivalent;
+    }
+
+    public String toString() {
+        return "Fixed: " + numFixed + ", Subsumed: " + numSubsumed + 
+               ", Strengthened: " + numStrengthened + ", Eliminated: " + numEliminated + 
+               ", Blocked: " + numBlocked + ", Probed: " + numProbed + 
+               ", Failed literals: " + numFailed + ", Fixed by probing: " + numProbeFixed +
+               ", Equivalent: " + numEquivalent;
+    }
+
+    /**
+     * Run all of the passes
+     * @return A simplified formula over the same variables which is
+     *         satisfiable if and only if the original one is
+     */
+    public CNF run() {
+        propagateUnits();
+        subsumeAll();
+        if (probe && !unsat) {
+            probeAll(System.currentTimeMillis() + probeTimeMs);
+            propagateUnits();
+            subsumeAll();
+        }
+        if (probe && !unsat) {
+            substituteEquivalences();
+            propagateUnits();
+            subsumeAll();
+        }
+        eliminateAll();
+        if (!unsat) {
+            eliminateBlocked();
+        }
+        return toCNF();
+    }
+
+    /**
+     * Convert the clauses that are left back to the format used by CNF
+     * @return A CNF with the same number of variables as the original
+     */
+    private CNF toCNF() {
+        CNF res = new CNF();
+        res.N = N;
+        IntVec lits = new IntVec();
+        if (unsat) {
+            res.addClause(lits);
+        }
+        else {
+            for (int[] c: clauses) {
+                if (c != null) {
+                    lits.clear();
+                    for (int k = 0; k < c.length; k++) {
+                        lits.push(c[k]);
+                    }
+                    res.addClause(lits);
+                }
+            }
+        }
+        return res;
+    }
+
+    /**
+     * Turn a model of the simplified formula into a model of the original
+     * @param model Assignment that satisfies the formula returned by run()
+     * @return An assignment that satisfies the original formula
+     */
+    public boolean[] extendModel(boolean[] model) {
+        boolean[] res = Arrays.copyOf(model, N);
+        int pos = stack.size;
+        while (pos > 0) {
+            int len = stack.data[pos-1];
+            int witness = stack.data[pos-2];
+            int start = pos-2-len;
+            boolean satisfied = false;
+            for (int k = start; k < start+len && !satisfied; k++) {
+                int lit = stack.data[k];
+                satisfied = res[lit>>1] == ((lit&1) == 0);
+            }
+            if (!satisfied) {
+                res[witness>>1] = (witness&1) == 0;
+            }
+            pos = start;
+        }
+        return res;
+    }
+}
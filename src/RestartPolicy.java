@@ -0,0 +1,23 @@
+/**
+ * A rule for deciding when a solver should undo all of its decisions and
+ * start its search over.  Clauses it has learned, variable activities,
+ * and saved phases all survive a restart, so a restart only throws away
+ * the current order of decisions
+ */
+interface RestartPolicy {
+    /**
+     * Called after every conflict
+     * @param lbd Number of distinct decision levels in the learned clause
+     */
+    void onConflict(int lbd);
+
+    /**
+     * @return Whether the solver should restart before its next decision
+     */
+    boolean shouldRestart();
+
+    /**
+     * Called when the solver restarts
+     */
+    void onRestart();
+}
@@ -0,0 +1,290 @@
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.util.Random;
+
+/**
+ * Cross-checks the SAT solvers in CNF against brute force on random
+ * 3-CNF expressions.  The number of clauses is picked to be around 4.26
+ * times the number of variables, where about half of the expressions
+ * are satisfiable, so both answers get checked.  A solver is wrong if it
+ * says an expression is unsatisfiable when brute force found a model, or
+ * if it returns an assignment that doesn't satisfy the expression.
+ *
+ * Besides every solve method, this checks the other things a solver
+ * can hand back: DRAT proofs of unsatisfiability (with DratChecker), the
+ * failed assumptions of an IncrementalSolver, and models of preprocessed
+ * expressions extended back to the original variables.
+ *
+ * Run with an optional number of expressions to try (default 400).
+ * Every mistake is printed with its seed, so it can be reproduced with
+ * makeProblem(), and the exit status is 1 if there were any
+ */
+class SolverCheck {
+    private int numChecks; // Number of answers checked so far
+    private int numWrong; // Number of them that were wrong
+    private int numSat, numUnsat; // Number of expressions of each kind
+
+    /**
+     * Make the random expression for a seed
+     * @param seed Seed of the expression
+     * @return An expression with 8 to 19 variables
+     */
+    public static CNF makeProblem(long seed) {
+        int n = 8 + (int)(seed % 12);
+        CNF cnf = new CNF();
+        cnf.makeRandom3CNF(n, (int)Math.round(4.26*n), seed);
+        return cnf;
+    }
+
+    /**
+     * Count a check, and print it if it went wrong
+     * @param name What was checked
+     * @param seed Seed of the expression
+     * @param error What went wrong, or null if nothing did
+     */
+    private void report(String name, long seed, String error) {
+        numChecks++;
+        if (error != null) {
+            numWrong++;
+            System.out.println(name + " " + error + " (seed " + seed + ")");
+        }
+    }
+
+    /**
+     * Compare the answer of a solver with the answer of brute force
+     * @param name Name of the solver
+     * @param seed Seed of the expression
+     * @param cnf The expression
+     * @param sat Whether brute force found a model
+     * @param res What the solver returned
+     */
+    private void check(String name, long seed, CNF cnf, boolean sat, boolean[] res) {
+        String error = null;
+        if (res == null && sat) {
+            error = "says unsatisfiable, but there is a model";
+        }
+        else if (res != null && !cnf.isSatisfied(res)) {
+            error = "returned an assignment that doesn't satisfy the clauses";
+        }
+        report(name, seed, error);
+    }
+
+    /**
+     * Run a solver that logs a DRAT proof, and if it says there is no
+     * model, check the proof
+     * @param name Name of the solver
+     * @param seed Seed of the expression
+     * @param cnf The expression
+     * @param sat Whether brute force found a model
+     * @param cdcl Whether to use CDCL rather than DPLL
+     */
+    private void checkProof(String name, long seed, CNF cnf, boolean sat, boolean cdcl) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DratWriter proof = new DratWriter(Channels.newChannel(bytes));
+        SolverOptions options = new SolverOptions();
+        boolean[] res = cdcl ? cnf.solveCDCL(options, proof) : cnf.solveDPLL(options, proof);
+        check(name, seed, cnf, sat, res);
+        if (res == null) {
+            String error = null;
+            try {
+                proof.close();
+                DratChecker checker = new DratChecker(cnf);
+                if (!checker.check(Channels.newChannel(new ByteArrayInputStream(bytes.toByteArray())))) {
+                    error = "wrote a DRAT proof that DratChecker rejects";
+                }
+            }
+            catch (IOException e) {
+                error = "wrote a DRAT proof that can't be read: " + e.getMessage();
+            }
+            report(name + " proof", seed, error);
+        }
+    }
+
+    /**
+     * Solve with a few random assumptions on an IncrementalSolver, and
+     * compare with brute force on the expression with the assumptions
+     * added as unit clauses.  If there's no model, the failed assumptions
+     * have to be some of the assumptions, and unsatisfiable on their own.
+     * Then solve again with no assumptions, which has to give the same
+     * answer as the expression itself
+     * @param seed Seed of the expression
+     * @param cnf The expression
+     * @param sat Whether brute force found a model
+     */
+    private void checkIncremental(long seed, CNF cnf, boolean sat) {
+        Random rand = new Random(seed);
+        int[] assumptions = new int[3];
+        for (int i = 0; i < assumptions.length; i++) {
+            assumptions[i] = (1 + rand.nextInt(cnf.N))*(rand.nextBoolean() ? 1 : -1);
+        }
+        IncrementalSolver solver = new IncrementalSolver(cnf, new SolverOptions());
+        boolean[] res = solver.solve(assumptions);
+        boolean assumedSat = withUnits(cnf, assumptions).solveBrute() != null;
+        check("IncrementalSolver with assumptions", seed, cnf, assumedSat, res);
+        String error = null;
+        if (res != null) {
+            for (int i = 0; i < assumptions.length && error == null; i++) {
+                if (res[Math.abs(assumptions[i])-1] != assumptions[i] > 0) {
+                    error = "returned a model where assumption " + assumptions[i] + " is false";
+                }
+            }
+        }
+        else {
+            int[] failed = solver.getFailedAssumptions();
+            for (int i = 0; i < failed.length && error == null; i++) {
+                boolean found = false;
+                for (int k = 0; k < assumptions.length; k++) {
+                    found = found || failed[i] == assumptions[k];
+                }
+                if (!found) {
+                    error = "says " + failed[i] + " failed, but it wasn't assumed";
+                }
+            }
+            if (error == null && withUnits(cnf, failed).solveBrute() != null) {
+                error = "gave failed assumptions that can all be true at once";
+            }
+        }
+        report("IncrementalSolver failed assumptions", seed, error);
+        check("IncrementalSolver after assumptions", seed, cnf, sat, solver.solve(new int[0]));
+    }
+
+    /**
+     * @param cnf An expression
+     * @param units Literals in signed 1-indexed format
+     * @return A copy of the expression with a unit clause for each literal
+     */
+    private static CNF withUnits(CNF cnf, int[] units) {
+        CNF res = new CNF();
+        for (int[] clause: cnf.getClauses()) {
+            res.addClause(clause);
+        }
+        for (int i = 0; i < units.length; i++) {
+            res.addClause(new int[] {units[i]});
+        }
+        return res;
+    }
+
+    /**
+     * Preprocess the expression, solve the simplified expression by brute
+     * force, and extend its model back to the original variables
+     * @param seed Seed of the expression
+     * @param cnf The expression
+     * @param sat Whether brute force found a model
+     */
+    private void checkPreprocess(long seed, CNF cnf, boolean sat) {
+        Preprocessor p = new Preprocessor(cnf, new SolverOptions());
+        CNF simplified = p.run();
+        boolean[] res = null;
+        if (!p.unsat) {
+            res = simplified.solveBrute();
+            if (res != null) {
+                res = p.extendModel(res);
+            }
+        }
+        check("Preprocessor.extendModel", seed, cnf, sat, res);
+    }
+
+    /**
+     * Run local search on a tiny expression, restarting after every flip
+     * that doesn't help, so that a restart often lands right on a model
+     * @param seed Seed of the expression
+     */
+    private void checkLocalSearchRestarts(long seed) {
+        CNF cnf = new CNF();
+        cnf.makeRandom3CNF(6, 12, seed);
+        SolverOptions options = new SolverOptions();
+        options.stagnationFlips = 0;
+        options.maxFlips = 10000;
+        options.seed = seed + 1;
+        String error = null;
+        try {
+            boolean[] res = cnf.solveLocalSearch(options);
+            if (res != null && !cnf.isSatisfied(res)) {
+                error = "returned an assignment that doesn't satisfy the clauses";
+            }
+        }
+        catch (RuntimeException e) {
+            error = "threw " + e;
+        }
+        report("solveLocalSearch(stagnationFlips = 0)", seed, error);
+    }
+
+    /**
+     * Check every solver on one expression
+     * @param seed Seed of the expression
+     */
+    public void checkAll(long seed) {
+        CNF cnf = makeProblem(seed);
+        boolean[] model = cnf.solveBrute();
+        boolean sat = model != null;
+        if (sat) {
+            numSat++;
+        }
+        else {
+            numUnsat++;
+        }
+        check("solveBrute", seed, cnf, sat, model);
+        check("solveBruteRecursive", seed, cnf, sat, cnf.solveBruteRecursive());
+        SolverOptions options = new SolverOptions();
+        options.threads = 3; // More tasks than variables in the prefix
+        check("solveBrute(3 threads)", seed, cnf, sat, cnf.solveBrute(options));
+
+        check("solveDPLLRecursive", seed, cnf, sat, cnf.solveDPLLRecursive());
+        options = new SolverOptions();
+        options.threads = 2;
+        options.splitMinVars = 2; // Split even these small expressions
+        check("solveDPLLParallel", seed, cnf, sat, cnf.solveDPLLParallel(options));
+
+        check("solveDPLL", seed, cnf, sat, cnf.solveDPLL());
+        check("solveCDCL", seed, cnf, sat, cnf.solveCDCL());
+        for (int pre = 0; pre < 2; pre++) {
+            options = new SolverOptions();
+            options.preprocess = pre == 1;
+            options.threads = 2;
+            options.cubeDepth = 3;
+            String with = options.preprocess ? " with preprocessing" : "";
+            check("solveDPLL(VSIDS)" + with, seed, cnf, sat, cnf.solveDPLL(options));
+            check("solveCDCL" + with, seed, cnf, sat, cnf.solveCDCL(options));
+            check("solvePortfolio" + with, seed, cnf, sat, cnf.solvePortfolio(options));
+            check("solveCubeAndConquer" + with, seed, cnf, sat, cnf.solveCubeAndConquer(options));
+            // Local search can't tell that there is no model, so giving
+            // up isn't wrong, but a model it returns has to be one
+            options.maxFlips = 100000;
+            options.seed = seed + 1;
+            options.localSearch = SolverOptions.LocalSearch.WALKSAT;
+            check("solveLocalSearch(WALKSAT)" + with, seed, cnf, false, cnf.solveLocalSearch(options));
+            options.localSearch = SolverOptions.LocalSearch.PROBSAT;
+            check("solveLocalSearch(PROBSAT)" + with, seed, cnf, false, cnf.solveLocalSearch(options));
+        }
+        options = new SolverOptions();
+        options.restarts = SolverOptions.Restarts.GLUCOSE;
+        options.restartBase = 2; // Restart often enough to matter here
+        check("solveCDCL(GLUCOSE)", seed, cnf, sat, cnf.solveCDCL(options));
+
+        checkProof("solveDPLL with DRAT", seed, cnf, sat, false);
+        checkProof("solveCDCL with DRAT", seed, cnf, sat, true);
+        checkIncremental(seed, cnf, sat);
+        checkPreprocess(seed, cnf, sat);
+        for (long k = 0; k < 5; k++) {
+            checkLocalSearchRestarts(5*seed + k);
+        }
+    }
+
+    public static void main(String[] args) {
+        int numProblems = 400;
+        if (args.length > 0) {
+            numProblems = Integer.parseInt(args[0]);
+        }
+        SolverCheck c = new SolverCheck();
+        for (long seed = 0; seed < numProblems; seed++) {
+            c.checkAll(seed);
+        }
+        System.out.println(c.numSat + " satisfiable and " + c.numUnsat + " unsatisfiable expressions, "
+                + c.numChecks + " answers checked, " + c.numWrong + " wrong");
+        if (c.numWrong > 0) {
+            System.exit(1);
+        }
+    }
+}
@@ -0,0 +1,49 @@
+/**
+ * A ClauseSink that gives clauses straight to an IncrementalSolver, so
+ * that they are only stored once, in the solver's own format.  The number
+ * of variables has to be known ahead of time
+ */
+class SolverClauseSink implements ClauseSink {
+    private IncrementalSolver solver;
+    private IntVec lits;
+    private int N; // Number of variables
+
+    /**
+     * @param N Number of variables
+     * @param options Settings for the solver
+     */
+    public SolverClauseSink(int N, SolverOptions options) {
+        CNF empty = new CNF();
+        empty.N = N;
+        this.N = N;
+        solver = new IncrementalSolver(empty, options);
+        lits = new IntVec();
+    }
+
+    public void addClause(int[] index, boolean[] pos) {
+        lits.clear();
+        for (int i = 0; i < index.length; i++) {
+            if (index[i] < 0 || index[i] >= N) {
+                throw new IllegalArgumentException("Variable " + index[i] + " is not between 0 and " + (N-1));
+            }
+            lits.push(2*index[i] + (pos[i] ? 0 : 1));
+        }
+        solver.addClause(lits);
+    }
+
+    /**
+     * @return The solver, which can be given more clauses or assumptions
+     */
+    public IncrementalSolver getSolver() {
+        return solver;
+    }
+
+    /**
+     * Solve the clauses that have been added so far
+     * @return The assignment of literals that satisfies the clauses,
+     *         or null if they are not satisfiable
+     */
+    public boolean[] solve() {
+        return solver.solve();
+    }
+}
@@ -0,0 +1,112 @@
+/**
+ * Settings for a single run of one of the solvers in CNF
+ */
+class SolverOptions implements Cloneable {
+    /**
+     * Rules for choosing the next variable to branch on
+     */
+    enum Heuristic {
+        LOWEST_INDEX, // The unassigned variable with the lowest index
+        VSIDS // The unassigned variable that has been in the most recent conflicts
+    }
+
+    /**
+     * Rules for deciding when to restart (only used by CDCLSolver)
+     */
+    enum Restarts {
+        NONE, // Never restart
+        LUBY, // restartBase times the Luby sequence 1, 1, 2, 1, 1, 2, 4, ...
+        GEOMETRIC, // restartBase, then restartBase*restartGrowth, ...
+        GLUCOSE // When recent learned clauses have a worse LBD than average
+    }
+
+    /**
+     * Rules for choosing which variable to flip in local search
+     */
+    enum LocalSearch {
+        WALKSAT, // A variable that breaks nothing, a random one, or the one that breaks the fewest
+        PROBSAT // A random variable, where breaking fewer clauses is exponentially more likely
+    }
+
+    public Heuristic heuristic = Heuristic.VSIDS;
+    public double varDecay = 0.95; // Activity decay for VSIDS
+    public Restarts restarts = Restarts.LUBY;
+    public int restartBase = 100; // Conflicts before the first restart for LUBY and GEOMETRIC
+    public double restartGrowth = 1.5; // Growth of the interval between GEOMETRIC restarts
+    public int glucoseWindow = 50; // Number of recent LBDs that GLUCOSE averages
+    public double glucoseK = 0.8; // How much worse than average recent LBDs have to be for GLUCOSE
+    public boolean phaseSaving = true; // Whether to branch on the value a variable last had
+    public int coreLBD = 2; // Learned clauses with at most this LBD are kept forever
+    public int tier2LBD = 6; // Learned clauses with at most this LBD are kept while they're used
+    public int reduceInterval = 2000; // Conflicts before the first reduction of learned clauses
+    public int reduceIncrement = 300; // How much longer each interval between reductions gets
+    public double clauseDecay = 0.999; // Activity decay for learned clauses
+    public long learntBudgetMB = 256; // Memory that learned clauses are allowed to take up, even if that means deleting TIER2 and CORE clauses
+    public boolean preprocess = false; // Whether to simplify the clauses first (see Preprocessor)
+    public int elimOccLimit = 16; // Only eliminate variables with at most this many occurrences
+    public int elimResolventLimit = 20; // Only eliminate variables whose resolvents are at most this long
+    public int blockedOccLimit = 16; // Only check clauses for blocking against this many others
+    public boolean probe = true; // Whether preprocessing includes probing and equivalent literal substitution
+    public long probeTimeMs = 2000; // Time budget for probing
+    public long seed = 0; // If nonzero, randomize initial activities and phases with this seed
+    public int shareMaxSize = 8; // Longest learned clause to share with other solvers in a portfolio
+    public int shareMaxLBD = 4; // Largest LBD of a learned clause to share in a portfolio
+    public int threads = Runtime.getRuntime().availableProcessors(); // Number of threads for the parallel solvers
+    public int cubeDepth = 8; // Most decisions in a cube for cube-and-conquer
+    public int lookaheadCandidates = 32; // Number of variables the cuber looks ahead on at each split
+    public int splitDepth = 8; // Parallel DPLL tries both options at once for this many levels of branches
+    public int splitMinVars = 12; // Parallel DPLL only splits when at least this many variables are left
+    public LocalSearch localSearch = LocalSearch.WALKSAT; // How local search picks a variable to flip
+    public double walkNoise = 0.567; // Probability of a random flip for WALKSAT
+    public double probsatCb = 2.38; // How strongly PROBSAT avoids breaking clauses
+    public double probsatEps = 1.0; // Added to break counts in PROBSAT
+    public long maxFlips = 10000000; // Local search gives up after this many flips
+    public long stagnationFlips = 100000; // Local search restarts if it hasn't improved in this many flips
+    public boolean stats = false; // Whether the DPLL and CDCL solvers report progress to SolverStats (see JMX), which registers an MBean the first time
+
+    /**
+     * @return A copy of these options that can be changed independently
+     */
+    public SolverOptions copy() {
+        try {
+            return (SolverOptions)clone();
+        }
+        catch (CloneNotSupportedException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * Make the branching heuristic that these options ask for
+     * @param N Number of variables
+     * @return A new heuristic
+     */
+    public BranchHeuristic makeHeuristic(int N) {
+        BranchHeuristic h;
+        if (heuristic == Heuristic.VSIDS) {
+            h = new VSIDSHeuristic(N, varDecay, seed);
+        }
+        else {
+            h = new LowestIndexHeuristic();
+        }
+        return h;
+    }
+
+    /**
+     * Make the restart policy that these options ask for
+     * @return A new restart policy, or null if we should never restart
+     */
+    public RestartPolicy makeRestartPolicy() {
+        RestartPolicy r = null;
+        if (restarts == Restarts.LUBY) {
+            r = new LubyRestarts(restartBase);
+        }
+        else if (restarts == Restarts.GEOMETRIC) {
+            r = new GeometricRestarts(restartBase, restartGrowth);
+        }
+        else if (restarts == Restarts.GLUCOSE) {
+            r = new GlucoseRestarts(glucoseWindow, glucoseK);
+        }
+        return r;
+    }
+}
@@ -0,0 +1,181 @@
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import javax.management.JMException;
+import javax.management.ObjectName;
+
+/**
+ * Statistics of every solver running in this process, so that a long
+ * solve can be watched over JMX while it's going on.  The counters are
+ * LongAdders, which keep a separate cell for each thread that contends
+ * on them, so solvers running in parallel don't slow each other down,
+ * and adding to them doesn't allocate once the cells exist.
+ *
+ * Solvers don't touch these counters on every step.  Each one keeps its
+ * own statistics as plain longs, and every so often a Tracker adds what
+ * has changed since the last time to the shared counters.  The conflict
+ * rate is worked out then too, about once every RATE_WINDOW, so reading
+ * it over JMX is cheap and doesn't disturb what anyone else reads
+ */
+class SolverStats implements SolverStatsMBean {
+    static final String NAME = "SAT:type=SolverStats"; // Name of the MBean
+    static final long RATE_WINDOW = 1000000000L; // Nanoseconds between samples of the conflict rate
+    private static SolverStats global; // Statistics for the whole process
+
+    private final LongAdder decisions = new LongAdder();
+    private final LongAdder propagations = new LongAdder();
+    private final LongAdder conflicts = new LongAdder();
+    private final LongAdder restarts = new LongAdder();
+    private final LongAdder learnedClauses = new LongAdder();
+    private final LongAdder activeSolvers = new LongAdder();
+    private volatile int depth;
+
+    // Conflict rate over the last window.  Only the solver that moves
+    // windowStart ahead gets to update the others
+    private final AtomicLong windowStart = new AtomicLong(System.nanoTime());
+    private volatile long windowConflicts; // Conflicts at windowStart
+    private volatile double conflictsPerSecond;
+
+    /**
+     * Return the statistics for the whole process, registering them with
+     * the platform MBean server the first time
+     * @return The statistics that every solver adds to
+     */
+    public static synchronized SolverStats get() {
+        if (global == null) {
+            global = new SolverStats();
+            try {
+                ManagementFactory.getPlatformMBeanServer().registerMBean(global, new ObjectName(NAME));
+            }
+            catch (JMException e) {
+                // The counters still work, they just can't be seen
+                Logger.getLogger(SolverStats.class.getName()).log(Level.WARNING,
+                        "Couldn't register solver statistics with JMX", e);
+            }
+        }
+        return global;
+    }
+
+    public long getDecisions() {
+        return decisions.sum();
+    }
+
+    public long getPropagations() {
+        return propagations.sum();
+    }
+
+    public long getConflicts() {
+        return conflicts.sum();
+    }
+
+    public long getRestarts() {
+        return restarts.sum();
+    }
+
+    public int getDepth() {
+        return depth;
+    }
+
+    public long getLearnedClauses() {
+        return learnedClauses.sum();
+    }
+
+    public double getConflictsPerSecond() {
+        return activeSolvers.sum() > 0 ? conflictsPerSecond : 0;
+    }
+
+    /**
+     * Work out the conflict rate if the current window is over.  This is
+     * called by the solvers whenever they report
+     */
+    private void sampleRate() {
+        long start = windowStart.get();
+        long now = System.nanoTime();
+        if (now - start >= RATE_WINDOW && windowStart.compareAndSet(start, now)) {
+            long c = conflicts.sum();
+            conflictsPerSecond = (c - windowConflicts)*1e9/(now - start);
+            windowConflicts = c;
+        }
+    }
+
+    public long getActiveSolvers() {
+        return activeSolvers.sum();
+    }
+
+    /**
+     * Set the totals back to 0.  The learned clauses and the depth are
+     * left alone, since they describe what the running solvers have right
+     * now rather than adding up over time, and each solver takes its own
+     * learned clauses back off the count when it finishes, which would
+     * make the count negative if it had been reset in between
+     */
+    public void reset() {
+        decisions.reset();
+        propagations.reset();
+        conflicts.reset();
+        restarts.reset();
+        windowConflicts = 0;
+        windowStart.set(System.nanoTime());
+        conflictsPerSecond = 0;
+    }
+
+    /**
+     * Reports the statistics of one solver, remembering what it has
+     * already reported so that only the changes are added
+     */
+    static class Tracker {
+        private SolverStats stats;
+        private long decisions, propagations, conflicts, restarts, learnedClauses;
+
+        /**
+         * @param stats Where to report to
+         */
+        public Tracker(SolverStats stats) {
+            this.stats = stats;
+        }
+
+        /**
+         * Call when the solver starts a search
+         */
+        public void start() {
+            stats.activeSolvers.increment();
+        }
+
+        /**
+         * Report the current totals of the solver
+         * @param decisions Decisions made so far
+         * @param propagations Literals propagated so far
+         * @param conflicts Conflicts found so far
+         * @param restarts Restarts done so far
+         * @param learnedClauses Learned clauses kept right now
+         * @param depth Current decision level
+         */
+        public void update(long decisions, long propagations, long conflicts,
+                           long restarts, long learnedClauses, int depth) {
+            stats.decisions.add(decisions - this.decisions);
+            stats.propagations.add(propagations - this.propagations);
+            stats.conflicts.add(conflicts - this.conflicts);
+            stats.restarts.add(restarts - this.restarts);
+            stats.learnedClauses.add(learnedClauses - this.learnedClauses);
+            stats.depth = depth;
+            this.decisions = decisions;
+            this.propagations = propagations;
+            this.conflicts = conflicts;
+            this.restarts = restarts;
+            this.learnedClauses = learnedClauses;
+            stats.sampleRate();
+        }
+
+        /**
+         * Call when the solver is done with a search.  Its learned
+         * clauses stop counting, since nothing is using them anymore
+         */
+        public void finish() {
+            stats.learnedClauses.add(-learnedClauses);
+            learnedClauses = 0;
+            stats.activeSolvers.decrement();
+        }
+    }
+}
@@ -0,0 +1,56 @@
+/**
+ * Live statistics of the solvers in this process, as seen over JMX
+ * (in JConsole, for instance) under the name SAT:type=SolverStats.
+ * JMX only looks at public interfaces, which is why this one is public
+ */
+public interface SolverStatsMBean {
+    /**
+     * @return Number of decisions made by every solver so far
+     */
+    long getDecisions();
+
+    /**
+     * @return Number of literals propagated by every solver so far
+     */
+    long getPropagations();
+
+    /**
+     * @return Number of conflicts found by every solver so far
+     */
+    long getConflicts();
+
+    /**
+     * @return Number of restarts done by every solver so far
+     */
+    long getRestarts();
+
+    /**
+     * @return Decision level of the solver that reported most recently
+     */
+    int getDepth();
+
+    /**
+     * @return Number of learned clauses that the running solvers are
+     *         keeping right now
+     */
+    long getLearnedClauses();
+
+    /**
+     * @return Number of conflicts found per second by every solver, over
+     *         the last second or so in which a solver reported, or 0 if
+     *         no solver is running
+     */
+    double getConflictsPerSecond();
+
+    /**
+     * @return Number of solvers that are running right now
+     */
+    long getActiveSolvers();
+
+    /**
+     * Set the decisions, propagations, conflicts and restarts back to 0.
+     * The learned clauses and the depth are what the solvers have right
+     * now, so they aren't reset
+     */
+    void reset();
+}
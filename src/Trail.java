@@ -0,0 +1,94 @@
+/**
+ * The current partial assignment of a solver, stored as a trail of the
+ * literals that have been made true in the order they were assigned.
+ * Each assignment also remembers its decision level and the clause that
+ * forced it, so that it can be undone level by level when backtracking
+ */
+class Trail {
+    static final byte UNASSIGNED = 0;
+    static final byte TRUE = 1;
+    static final byte FALSE = -1;
+    static final int NO_REASON = -1;
+
+    int N; // Number of variables
+    byte[] value; // Value of each variable
+    int[] level; // Decision level at which each variable was assigned
+    int[] reason; // Clause that forced each variable, or NO_REASON
+    int[] lits; // Literals that have been made true, in order
+    int size;
+    int qhead; // Position up to which assignments have been propagated
+    IntVec lim; // Trail size at the start of each decision level
+
+    public Trail(int N) {
+        this.N = N;
+        value = new byte[N];
+        level = new int[N];
+        reason = new int[N];
+        lits = new int[N];
+        lim = new IntVec();
+        for (int i = 0; i < N; i++) {
+            reason[i] = NO_REASON;
+        }
+    }
+
+    /**
+     * Return the current truth value of a literal
+     * @param lit Literal
+     * @return TRUE, FALSE, or UNASSIGNED
+     */
+    public byte litValue(int lit) {
+        byte v = value[lit>>1];
+        if ((lit&1) == 1) {
+            v = (byte)-v;
+        }
+        return v;
+    }
+
+    public int decisionLevel() {
+        return lim.size;
+    }
+
+    public void newDecisionLevel() {
+        lim.push(size);
+    }
+
+    /**
+     * Return the position in the trail where a decision level starts
+     * @param lev Decision level
+     * @return Index into lits
+     */
+    public int levelStart(int lev) {
+        return lev == 0 ? 0 : lim.data[lev-1];
+    }
+
+    /**
+     * Make a literal true at the current decision level
+     * @param lit Literal
+     * @param from Clause that forced this literal, or NO_REASON
+     */
+    public void enqueue(int lit, int from) {
+        int v = lit>>1;
+        value[v] = (lit&1) == 0 ? TRUE : FALSE;
+        level[v] = lim.size;
+        reason[v] = from;
+        lits[size++] = lit;
+    }
+
+    /**
+     * Undo all assignments above a given decision level
+     * @param lev Decision level to go back to
+     */
+    public void cancelUntil(int lev) {
+        if (lim.size > lev) {
+            int stop = lim.data[lev];
+            for (int i = size-1; i >= stop; i--) {
+                int v = lits[i]>>1;
+                value[v] = UNASSIGNED;
+                reason[v] = NO_REASON;
+            }
+            size = stop;
+            qhead = stop;
+            lim.shrink(lev);
+        }
+    }
+}
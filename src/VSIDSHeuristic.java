@@ -0,0 +1,74 @@
+import java.util.Random;
+
+/**
+ * Variable State Independent Decaying Sum (VSIDS), in the exponential
+ * form used by MiniSat (EVSIDS).  Every variable in a conflict gets its
+ * activity bumped, and after every conflict the bump amount grows by
+ * 1/decay, which has the same effect as multiplying all of the other
+ * activities by decay.  We always branch on the unassigned variable with
+ * the highest activity, so decisions follow where conflicts have recently
+ * been happening
+ */
+class VSIDSHeuristic implements BranchHeuristic {
+    private static final double RESCALE_LIMIT = 1e100;
+
+    private double[] activity;
+    private double inc; // Current bump amount
+    private double decay;
+    private VarHeap heap; // Unassigned variables (and possibly some assigned ones)
+
+    /**
+     * @param N Number of variables
+     * @param decay Decay factor, in (0, 1).  Smaller values focus more on
+     *              recent conflicts
+     * @param seed If nonzero, start each variable off with a tiny random
+     *             activity, so that solvers with different seeds make
+     *             different early decisions
+     */
+    public VSIDSHeuristic(int N, double decay, long seed) {
+        activity = new double[N];
+        if (seed != 0) {
+            Random r = new Random(seed);
+            for (int v = 0; v < N; v++) {
+                activity[v] = r.nextDouble()*1e-5;
+            }
+        }
+        inc = 1;
+        this.decay = decay;
+        heap = new VarHeap(activity);
+        for (int v = 0; v < N; v++) {
+            heap.insert(v);
+        }
+    }
+
+    public int pickBranchVar(Trail trail) {
+        int v = -1;
+        while (v == -1 && !heap.isEmpty()) {
+            int next = heap.removeMax();
+            if (trail.value[next] == Trail.UNASSIGNED) {
+                v = next;
+            }
+        }
+        return v;
+    }
+
+    public void onUnassign(int v) {
+        heap.insert(v);
+    }
+
+    public void bump(int v) {
+        activity[v] += inc;
+        if (activity[v] > RESCALE_LIMIT) {
+            // Scale everything down to avoid overflow; this doesn't change the order
+            for (int i = 0; i < activity.length; i++) {
+                activity[i] /= RESCALE_LIMIT;
+            }
+            inc /= RESCALE_LIMIT;
+        }
+        heap.increased(v);
+    }
+
+    public void onConflict() {
+        inc /= decay;
+    }
+}
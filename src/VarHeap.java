@@ -0,0 +1,108 @@
+/**
+ * A binary max-heap of variables ordered by a score array, which also
+ * keeps track of where each variable is in the heap.  This lets us
+ * check membership and restore the heap property after a variable's
+ * score goes up in O(log N), without any boxing
+ */
+class VarHeap {
+    private double[] score; // Score of each variable (owned by the caller)
+    private int[] heap; // Variables in heap order
+    private int[] indices; // Position of each variable in the heap, or -1
+    private int size;
+
+    /**
+     * Make an empty heap
+     * @param score Score of each variable.  If a score increases, the
+     *              caller must call increased() on that variable
+     */
+    public VarHeap(double[] score) {
+        this.score = score;
+        heap = new int[score.length];
+        indices = new int[score.length];
+        for (int v = 0; v < score.length; v++) {
+            indices[v] = -1;
+        }
+        size = 0;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public boolean contains(int v) {
+        return indices[v] >= 0;
+    }
+
+    /**
+     * Add a variable to the heap if it isn't there already
+     * @param v Variable
+     */
+    public void insert(int v) {
+        if (indices[v] < 0) {
+            indices[v] = size;
+            heap[size++] = v;
+            percolateUp(indices[v]);
+        }
+    }
+
+    /**
+     * Restore the heap after the score of a variable increases
+     * @param v Variable
+     */
+    public void increased(int v) {
+        if (indices[v] >= 0) {
+            percolateUp(indices[v]);
+        }
+    }
+
+    /**
+     * Remove and return the variable with the highest score
+     * @return Variable with the highest score
+     */
+    public int removeMax() {
+        int v = heap[0];
+        size--;
+        heap[0] = heap[size];
+        indices[heap[0]] = 0;
+        indices[v] = -1;
+        if (size > 1) {
+            percolateDown(0);
+        }
+        return v;
+    }
+
+    private void percolateUp(int i) {
+        int v = heap[i];
+        double s = score[v];
+        while (i > 0 && score[heap[(i-1)>>1]] < s) {
+            int parent = (i-1)>>1;
+            heap[i] = heap[parent];
+            indices[heap[i]] = i;
+            i = parent;
+        }
+        heap[i] = v;
+        indices[v] = i;
+    }
+
+    private void percolateDown(int i) {
+        int v = heap[i];
+        double s = score[v];
+        boolean done = false;
+        while (!done && 2*i+1 < size) {
+            int child = 2*i+1;
+            if (child+1 < size && score[heap[child+1]] > score[heap[child]]) {
+                child++;
+            }
+            if (score[heap[child]] > s) {
+                heap[i] = heap[child];
+                indices[heap[i]] = i;
+                i = child;
+            }
+            else {
+                done = true;
+            }
+        }
+        heap[i] = v;
+        indices[v] = i;
+    }
+}
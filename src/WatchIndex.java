@@ -0,0 +1,214 @@
+/**
+ * A two-watched-literal index over the clauses in a ClauseArena.  Every
+ * clause with at least two literals watches its first two literals, and
+ * we only look at a clause when one of its watched literals becomes false.
+ * At that point we either find another literal to watch, or the clause is
+ * unit (or false).  Since a watch stays valid when assignments are undone,
+ * nothing needs to be updated on backtrack.
+ *
+ * Any solver that keeps its assignment in a Trail can use this to
+ * propagate unit clauses to a fixpoint
+ */
+class WatchIndex {
+    ClauseArena arena;
+    IntVec[] watches; // For each literal, clauses in which it is one of the first two literals
+    IntVec clauses; // References to the original clauses
+    boolean unsat; // Whether an empty clause has been derived at level 0
+    long propagations; // Number of literals propagated
+    private byte[] seen; // Working memory for simplifying clauses
+
+    /**
+     * Make an empty index
+     * @param arena Where the clauses will be stored
+     * @param N Number of variables
+     */
+    public WatchIndex(ClauseArena arena, int N) {
+        this.arena = arena;
+        watches = new IntVec[2*N];
+        for (int l = 0; l < 2*N; l++) {
+            watches[l] = new IntVec();
+        }
+        clauses = new IntVec();
+        seen = new byte[N];
+    }
+
+    /**
+     * Add all of the clauses of a CNF
+     * @param cnf Expression whose clauses to add
+     * @param trail Level 0 assignment that unit clauses will be put into
+     * @return False if the clauses are known to be unsatisfiable
+     */
+    public boolean load(CNF cnf, Trail trail) {
+        IntVec lits = new IntVec();
+        ClauseIterator it = cnf.clauseIterator();
+        while (it.next()) {
+            lits.clear();
+            for (int k = 0; k < it.size(); k++) {
+                lits.push(it.lit(k));
+            }
+            addClause(lits, trail);
+        }
+        return !unsat;
+    }
+
+    /**
+     * Add an original clause at decision level 0, simplifying it against
+     * the current level 0 assignment
+     * @param lits Literals of the clause (this will be modified)
+     * @param trail Current assignment, which must be at level 0
+     * @return False if the clauses are now known to be unsatisfiable
+     */
+    public boolean addClause(IntVec lits, Trail trail) {
+        if (unsat) {
+            return false;
+        }
+        // Remove repeated and false literals, and skip tautologies and true clauses
+        int j = 0;
+        boolean satisfied = false;
+        for (int i = 0; i < lits.size && !satisfied; i++) {
+            int lit = lits.data[i];
+            byte v = trail.litValue(lit);
+            if (v == Trail.TRUE || seen[lit>>1] == 2 - (lit&1)) {
+                satisfied = true; // Also true if the complement was already seen
+            }
+            else if (v != Trail.FALSE && seen[lit>>1] == 0) {
+                seen[lit>>1] = (byte)(1 + (lit&1));
+                lits.data[j++] = lit;
+            }
+        }
+        for (int i = 0; i < lits.size; i++) {
+            seen[lits.data[i]>>1] = 0;
+        }
+        lits.shrink(j);
+        if (!satisfied) {
+            if (lits.size == 0) {
+                unsat = true;
+            }
+            else if (lits.size == 1) {
+                trail.enqueue(lits.data[0], Trail.NO_REASON);
+                unsat = propagate(trail) != Trail.NO_REASON;
+            }
+            else {
+                int cr = arena.alloc(lits, false);
+                clauses.push(cr);
+                attach(cr);
+            }
+        }
+        return !unsat;
+    }
+
+    /**
+     * Assign every pure literal at level 0.  A literal is pure if its
+     * complement isn't in any clause that isn't satisfied yet, so making
+     * it true can't make a clause false, and the clauses are satisfiable
+     * with it if they are at all.  It does rule out some models, though,
+     * so this is only for a solver that won't be given more clauses or
+     * assumptions later.  Satisfying clauses can make more literals pure,
+     * so this goes over the clauses again until none are left
+     * @param trail Current assignment, which must be at level 0 with
+     *              everything propagated
+     * @param pure Where to add the literals that were assigned
+     */
+    public void assignPureLiterals(Trail trail, IntVec pure) {
+        int N = seen.length;
+        int[] count = new int[2*N]; // Occurrences of each literal in clauses that aren't satisfied
+        boolean again = true;
+        while (again) {
+            again = false;
+            for (int l = 0; l < 2*N; l++) {
+                count[l] = 0;
+            }
+            for (int i = 0; i < clauses.size; i++) {
+                int cr = clauses.data[i];
+                int n = arena.size(cr);
+                boolean satisfied = false;
+                for (int k = 0; k < n && !satisfied; k++) {
+                    satisfied = trail.litValue(arena.lit(cr, k)) == Trail.TRUE;
+                }
+                for (int k = 0; k < n && !satisfied; k++) {
+                    count[arena.lit(cr, k)]++;
+                }
+            }
+            for (int v = 0; v < N; v++) {
+                if (trail.value[v] == Trail.UNASSIGNED && (count[2*v] == 0) != (count[2*v+1] == 0)) {
+                    int lit = count[2*v] > 0 ? 2*v : 2*v+1;
+                    trail.enqueue(lit, Trail.NO_REASON);
+                    pure.push(lit);
+                    again = true;
+                }
+            }
+            // The complements are only in satisfied clauses, so this
+            // never finds a conflict, but it keeps the trail propagated
+            propagate(trail);
+        }
+    }
+
+    /**
+     * Start watching the first two literals of a clause
+     * @param cr Clause reference
+     */
+    public void attach(int cr) {
+        watches[arena.lit(cr, 0)].push(cr);
+        watches[arena.lit(cr, 1)].push(cr);
+    }
+
+    /**
+     * Propagate all of the assignments on the trail that haven't been
+     * propagated yet.  When a clause is used to force a literal, that
+     * literal is moved to the first spot in the clause
+     * @param trail Current assignment
+     * @return A clause that has become false, or NO_REASON if there is none
+     */
+    public int propagate(Trail trail) {
+        int[] a = arena.data;
+        int confl = Trail.NO_REASON;
+        while (trail.qhead < trail.size && confl == Trail.NO_REASON) {
+            int falseLit = trail.lits[trail.qhead++]^1;
+            IntVec ws = watches[falseLit];
+            int[] w = ws.data;
+            int i = 0, j = 0;
+            int n = ws.size;
+            propagations++;
+            while (i < n) {
+                int cr = w[i++];
+                int c0 = cr + ClauseArena.HEADER;
+                // Make sure the false literal is in the second spot
+                if (a[c0] == falseLit) {
+                    a[c0] = a[c0+1];
+                    a[c0+1] = falseLit;
+                }
+                int first = a[c0];
+                if (trail.litValue(first) == Trail.TRUE) {
+                    w[j++] = cr;
+                    continue;
+                }
+                // Look for a new literal to watch
+                int end = c0 + a[cr];
+                boolean found = false;
+                for (int k = c0+2; k < end && !found; k++) {
+                    if (trail.litValue(a[k]) != Trail.FALSE) {
+                        a[c0+1] = a[k];
+                        a[k] = falseLit;
+                        watches[a[c0+1]].push(cr);
+                        found = true;
+                    }
+                }
+                if (!found) {
+                    w[j++] = cr;
+                    if (trail.litValue(first) == Trail.FALSE) {
+                        confl = cr;
+                        trail.qhead = trail.size;
+                        while (i < n) {
+                            w[j++] = w[i++];
+                        }
+                    }
+                    else {
+                        trail.enqueue(first, cr);
+                    }
+                }
+            }
+            ws.shrink(j);
+        }
+        return confl;
+    }
+}